@@ -3,6 +3,7 @@ package com.airport.android
 import android.app.Application
 import com.airport.android.api.RetrofitClient
 import com.airport.android.util.SessionManager
+import java.io.File
 
 /**
  * Application class - initializes global dependencies
@@ -18,7 +19,7 @@ class AirportApplication : Application() {
         // Initialize session manager
         sessionManager = SessionManager(this)
         
-        // Initialize Retrofit with session manager
-        RetrofitClient.init(sessionManager)
+        // Initialize Retrofit with session manager and HTTP cache
+        RetrofitClient.init(sessionManager, File(cacheDir, "http"))
     }
 }
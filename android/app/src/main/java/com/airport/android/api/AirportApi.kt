@@ -1,6 +1,7 @@
 package com.airport.android.api
 
 import com.airport.android.model.*
+import retrofit2.Call
 import retrofit2.Response
 import retrofit2.http.*
 
@@ -16,6 +17,13 @@ interface AirportApi {
     @POST("api/auth/register")
     suspend fun register(@Body request: RegisterRequest): Response<User>
 
+    // Blocking, for the OkHttp authenticator that renews expired access tokens
+    @POST("api/auth/refresh")
+    fun refresh(@Body request: RefreshRequest): Call<LoginResponse>
+
+    @POST("api/auth/logout")
+    suspend fun logout(@Body request: LogoutRequest): Response<Unit>
+
     // Flights
     @GET("api/flights")
     suspend fun getAllFlights(): Response<List<Flight>>
@@ -29,13 +37,24 @@ interface AirportApi {
     @GET("api/flights/search/destination/{destination}")
     suspend fun searchByDestination(@Path("destination") destination: String): Response<List<Flight>>
 
+    // Cities matching a partial name, for the search box
+    @GET("api/airports/suggest")
+    suspend fun suggestCities(@Query("q") query: String): Response<List<CitySuggestion>>
+
     // Bookings
     @GET("api/bookings")
     suspend fun getMyBookings(): Response<List<Booking>>
 
+    // The same Idempotency-Key on a retry returns the original result instead of acting twice
     @POST("api/bookings")
-    suspend fun createBooking(@Body request: BookingRequest): Response<Booking>
+    suspend fun createBooking(
+        @Body request: BookingRequest,
+        @Header("Idempotency-Key") idempotencyKey: String
+    ): Response<Booking>
 
     @DELETE("api/bookings/{id}")
-    suspend fun cancelBooking(@Path("id") id: Long): Response<Booking>
+    suspend fun cancelBooking(
+        @Path("id") id: Long,
+        @Header("Idempotency-Key") idempotencyKey: String
+    ): Response<Booking>
 }
@@ -1,12 +1,17 @@
 package com.airport.android.api
 
 import com.airport.android.BuildConfig
+import com.airport.android.model.RefreshRequest
 import com.airport.android.util.SessionManager
+import okhttp3.Authenticator
+import okhttp3.Cache
 import okhttp3.Interceptor
 import okhttp3.OkHttpClient
 import okhttp3.logging.HttpLoggingInterceptor
 import retrofit2.Retrofit
 import retrofit2.converter.gson.GsonConverterFactory
+import java.io.File
+import java.io.IOException
 import java.util.concurrent.TimeUnit
 
 /**
@@ -16,9 +21,13 @@ object RetrofitClient {
 
     private var retrofit: Retrofit? = null
     private var sessionManager: SessionManager? = null
+    private var cacheDir: File? = null
 
-    fun init(sessionManager: SessionManager) {
+    private const val HTTP_CACHE_SIZE = 5L * 1024 * 1024
+
+    fun init(sessionManager: SessionManager, cacheDir: File) {
         this.sessionManager = sessionManager
+        this.cacheDir = cacheDir
     }
 
     private fun getClient(): Retrofit {
@@ -42,9 +51,12 @@ object RetrofitClient {
                 chain.proceed(request)
             }
 
+            // Flight lists carry ETags; the cache revalidates them and reuses the body on 304
             val client = OkHttpClient.Builder()
+                .apply { cacheDir?.let { cache(Cache(it, HTTP_CACHE_SIZE)) } }
                 .addInterceptor(loggingInterceptor)
                 .addInterceptor(authInterceptor)
+                .authenticator(tokenAuthenticator)
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .build()
@@ -59,5 +71,66 @@ object RetrofitClient {
         return retrofit!!
     }
 
+    /**
+     * Access tokens are short-lived. On a 401, trade the refresh token for a new
+     * pair once and retry; concurrent 401s share a single refresh.
+     */
+    private val tokenAuthenticator = Authenticator { _, response ->
+        val session = sessionManager ?: return@Authenticator null
+        // The retry with a fresh token was refused too; give up
+        if (response.priorResponse != null) return@Authenticator null
+
+        synchronized(this) {
+            val sentToken = response.request.header("Authorization")?.removePrefix("Bearer ")
+            val currentToken = session.getToken()
+            if (currentToken != null && currentToken != sentToken) {
+                // Another request refreshed while this one waited
+                return@Authenticator response.request.newBuilder()
+                    .header("Authorization", "Bearer $currentToken")
+                    .build()
+            }
+
+            val refreshToken = session.getRefreshToken() ?: return@Authenticator null
+            val refreshed = try {
+                getRefreshApi().refresh(RefreshRequest(refreshToken)).execute()
+            } catch (e: IOException) {
+                return@Authenticator null
+            }
+            val body = refreshed.body()
+            if (!refreshed.isSuccessful || body == null) {
+                // Refresh token expired or revoked: the user has to sign in again
+                session.logout()
+                return@Authenticator null
+            }
+
+            session.saveToken(body.token)
+            session.saveRefreshToken(body.refreshToken)
+            session.saveUser(body.user)
+            response.request.newBuilder()
+                .header("Authorization", "Bearer ${body.token}")
+                .build()
+        }
+    }
+
+    private var refreshApi: AirportApi? = null
+
+    // Plain client without the auth interceptor or authenticator, so a refresh never recurses
+    private fun getRefreshApi(): AirportApi {
+        if (refreshApi == null) {
+            refreshApi = Retrofit.Builder()
+                .baseUrl(BuildConfig.BASE_URL)
+                .client(
+                    OkHttpClient.Builder()
+                        .connectTimeout(30, TimeUnit.SECONDS)
+                        .readTimeout(30, TimeUnit.SECONDS)
+                        .build()
+                )
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(AirportApi::class.java)
+        }
+        return refreshApi!!
+    }
+
     fun getApi(): AirportApi = getClient().create(AirportApi::class.java)
 }
@@ -61,6 +61,10 @@ data class Booking(
 // Request DTOs
 data class LoginRequest(val email: String, val password: String)
 
+data class RefreshRequest(val refreshToken: String)
+
+data class LogoutRequest(val refreshToken: String?)
+
 data class RegisterRequest(
     val name: String,
     val email: String,
@@ -78,5 +82,11 @@ data class BookingRequest(
 )
 
 // Response DTOs
-data class LoginResponse(val token: String, val user: User)
+data class LoginResponse(val token: String, val refreshToken: String, val user: User)
 data class ErrorResponse(val message: String)
+data class CitySuggestion(
+    val city: String,
+    val departures: Int,
+    val arrivals: Int,
+    val corrected: Boolean
+)
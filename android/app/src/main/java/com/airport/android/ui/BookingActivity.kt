@@ -11,6 +11,7 @@ import com.airport.android.api.RetrofitClient
 import com.airport.android.databinding.ActivityBookingBinding
 import com.airport.android.model.BookingRequest
 import kotlinx.coroutines.launch
+import java.util.UUID
 
 /**
  * Screen for creating a new booking
@@ -23,6 +24,9 @@ class BookingActivity : AppCompatActivity() {
     private var flightId: Long = 0
     private var flightPrice: Double = 0.0
 
+    // Reused when the user retries after a timeout so the server books only once
+    private var idempotencyKey: String? = null
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
         binding = ActivityBookingBinding.inflate(layoutInflater)
@@ -117,9 +121,13 @@ class BookingActivity : AppCompatActivity() {
             seatNumber = seatNumber.uppercase()
         )
 
+        val key = idempotencyKey ?: UUID.randomUUID().toString().also { idempotencyKey = it }
+
         lifecycleScope.launch {
             try {
-                val response = RetrofitClient.getApi().createBooking(request)
+                val response = RetrofitClient.getApi().createBooking(request, key)
+                // The server answered; the next attempt is a new request
+                idempotencyKey = null
 
                 if (response.isSuccessful && response.body() != null) {
                     val booking = response.body()!!
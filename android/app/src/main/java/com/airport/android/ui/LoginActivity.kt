@@ -99,6 +99,7 @@ class LoginActivity : AppCompatActivity() {
                 if (response.isSuccessful && response.body() != null) {
                     val loginResponse = response.body()!!
                     sessionManager.saveToken(loginResponse.token)
+                    sessionManager.saveRefreshToken(loginResponse.refreshToken)
                     sessionManager.saveUser(loginResponse.user)
 
                     Toast.makeText(this@LoginActivity, "Welcome ${loginResponse.user.name}!", Toast.LENGTH_SHORT).show()
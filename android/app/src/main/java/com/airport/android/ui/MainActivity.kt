@@ -16,7 +16,9 @@ import com.airport.android.api.RetrofitClient
 import com.airport.android.databinding.ActivityMainBinding
 import com.airport.android.model.Booking
 import com.airport.android.model.Flight
+import com.airport.android.model.LogoutRequest
 import kotlinx.coroutines.launch
+import java.util.UUID
 
 /**
  * Main activity with flights and bookings tabs
@@ -31,6 +33,9 @@ class MainActivity : AppCompatActivity() {
 
     private var currentTab = TAB_FLIGHTS
 
+    // Idempotency keys of cancellations that have not had a response yet, by booking id
+    private val pendingCancelKeys = mutableMapOf<Long, String>()
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
         binding = ActivityMainBinding.inflate(layoutInflater)
@@ -192,7 +197,9 @@ class MainActivity : AppCompatActivity() {
     private fun cancelBooking(booking: Booking) {
         lifecycleScope.launch {
             try {
-                val response = RetrofitClient.getApi().cancelBooking(booking.id)
+                val key = pendingCancelKeys.getOrPut(booking.id) { UUID.randomUUID().toString() }
+                val response = RetrofitClient.getApi().cancelBooking(booking.id, key)
+                pendingCancelKeys.remove(booking.id)
 
                 if (response.isSuccessful) {
                     Toast.makeText(this@MainActivity, "Booking cancelled", Toast.LENGTH_SHORT).show()
@@ -224,9 +231,18 @@ class MainActivity : AppCompatActivity() {
     }
 
     private fun logout() {
-        sessionManager.logout()
-        startActivity(Intent(this, LoginActivity::class.java))
-        finish()
+        val refreshToken = sessionManager.getRefreshToken()
+        lifecycleScope.launch {
+            // Revoke the tokens on the server; sign out locally even if that fails
+            try {
+                RetrofitClient.getApi().logout(LogoutRequest(refreshToken))
+            } catch (e: Exception) {
+                // Offline: the access token still expires within minutes
+            }
+            sessionManager.logout()
+            startActivity(Intent(this@MainActivity, LoginActivity::class.java))
+            finish()
+        }
     }
 
     private fun setLoading(loading: Boolean) {
@@ -19,6 +19,12 @@ class SessionManager(context: Context) {
 
     fun getToken(): String? = prefs.getString(KEY_TOKEN, null)
 
+    fun saveRefreshToken(refreshToken: String) {
+        prefs.edit().putString(KEY_REFRESH_TOKEN, refreshToken).apply()
+    }
+
+    fun getRefreshToken(): String? = prefs.getString(KEY_REFRESH_TOKEN, null)
+
     fun saveUser(user: User) {
         prefs.edit().putString(KEY_USER, gson.toJson(user)).apply()
     }
@@ -41,6 +47,7 @@ class SessionManager(context: Context) {
     companion object {
         private const val PREFS_NAME = "texas_airport_prefs"
         private const val KEY_TOKEN = "jwt_token"
+        private const val KEY_REFRESH_TOKEN = "refresh_token"
         private const val KEY_USER = "user_info"
     }
 }
@@ -2,6 +2,7 @@ package com.airport;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Texas Regional Airport Reservation System - REST API
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @author Paul Yarwood
  */
 @SpringBootApplication
+@EnableScheduling
 public class AirportApiApplication {
 
     public static void main(String[] args) {
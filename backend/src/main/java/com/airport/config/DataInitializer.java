@@ -9,6 +9,8 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalTime;
+
 /**
  * Data initializer - seeds the database with sample Texas flights.
  * Mirrors the initializeSampleData() method from original AirportSystem.java
@@ -31,18 +33,18 @@ public class DataInitializer implements CommandLineRunner {
         if (flightRepository.count() == 0) {
             System.out.println("Initializing sample flight data...\n");
 
-            flightRepository.save(new Flight("TX101", "Dallas", "Austin", "08:00 AM", 150, 199.99));
-            flightRepository.save(new Flight("TX102", "Houston", "San Antonio", "10:30 AM", 120, 149.99));
-            flightRepository.save(new Flight("TX103", "Austin", "Dallas", "02:00 PM", 150, 199.99));
-            flightRepository.save(new Flight("TX104", "El Paso", "Lubbock", "09:15 AM", 80, 129.99));
-            flightRepository.save(new Flight("TX105", "Corpus Christi", "Amarillo", "11:45 AM", 100, 179.99));
+            flightRepository.save(new Flight("TX101", "Dallas", "Austin", LocalTime.of(8, 0), LocalTime.of(9, 0), 150, 199.99));
+            flightRepository.save(new Flight("TX102", "Houston", "San Antonio", LocalTime.of(10, 30), LocalTime.of(11, 30), 120, 149.99));
+            flightRepository.save(new Flight("TX103", "Austin", "Dallas", LocalTime.of(14, 0), LocalTime.of(15, 0), 150, 199.99));
+            flightRepository.save(new Flight("TX104", "El Paso", "Lubbock", LocalTime.of(9, 15), LocalTime.of(10, 30), 80, 129.99));
+            flightRepository.save(new Flight("TX105", "Corpus Christi", "Amarillo", LocalTime.of(11, 45), LocalTime.of(13, 35), 100, 179.99));
             
             // Additional flights for more variety
-            flightRepository.save(new Flight("TX106", "Dallas", "Houston", "07:00 AM", 180, 159.99));
-            flightRepository.save(new Flight("TX107", "San Antonio", "Austin", "09:00 AM", 100, 89.99));
-            flightRepository.save(new Flight("TX108", "Houston", "Dallas", "03:30 PM", 180, 159.99));
-            flightRepository.save(new Flight("TX109", "Austin", "El Paso", "12:00 PM", 120, 229.99));
-            flightRepository.save(new Flight("TX110", "Lubbock", "Dallas", "04:00 PM", 80, 149.99));
+            flightRepository.save(new Flight("TX106", "Dallas", "Houston", LocalTime.of(7, 0), LocalTime.of(8, 10), 180, 159.99));
+            flightRepository.save(new Flight("TX107", "San Antonio", "Austin", LocalTime.of(9, 0), LocalTime.of(9, 50), 100, 89.99));
+            flightRepository.save(new Flight("TX108", "Houston", "Dallas", LocalTime.of(15, 30), LocalTime.of(16, 40), 180, 159.99));
+            flightRepository.save(new Flight("TX109", "Austin", "El Paso", LocalTime.of(12, 0), LocalTime.of(13, 40), 120, 229.99));
+            flightRepository.save(new Flight("TX110", "Lubbock", "Dallas", LocalTime.of(16, 0), LocalTime.of(17, 15), 80, 149.99));
 
             System.out.println("Sample flights initialized!\n");
         }
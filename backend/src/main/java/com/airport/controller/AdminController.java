@@ -0,0 +1,246 @@
+package com.airport.controller;
+
+import com.airport.security.JwtTokenProvider;
+import com.airport.security.RateLimitFilter;
+import com.airport.service.BookingHoldService;
+import com.airport.service.BookingPartitionExecutor;
+import com.airport.service.ExportService;
+import com.airport.service.FlightCacheService;
+import com.airport.service.IdempotencyService;
+import com.airport.service.PasswordHashingService;
+import com.airport.service.RouteAnalyticsService;
+import com.airport.service.SeatStreamService;
+import com.airport.service.TokenRevocationService;
+import com.airport.service.UserCacheService;
+import com.airport.util.BoundedCache;
+import com.airport.util.RateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin REST Controller - operational metrics for administrators.
+ *
+ * Endpoints:
+ * GET /api/admin/metrics/booking-partitions - Queue depth and latency per booking partition
+ * GET /api/admin/metrics/idempotency        - Stored responses and replay hit rate
+ * GET /api/admin/metrics/flight-cache       - Flight cache size, hits, misses and evictions
+ * GET /api/admin/metrics/seat-stream        - Open seat streams and flights being watched
+ * GET /api/admin/metrics/user-cache         - User cache size, hits, misses and evictions
+ * GET /api/admin/metrics/token-cache        - Verified-token cache size, hits, misses and evictions
+ * GET /api/admin/metrics/password-hashing   - Hashing pool queue depth, rejections and latency
+ * GET /api/admin/metrics/rate-limit         - Allowed and throttled requests per rate limit rule
+ * GET /api/admin/metrics/token-revocation   - Revoked tokens and how often the Bloom filter sufficed
+ * GET /api/admin/analytics/routes           - Load factor, bookings, cancellations and revenue per route
+ * GET /api/admin/analytics/routes/daily?days=30 - The same per route and booking day (no load factor)
+ * GET /api/admin/export/flights             - Stream all flights (?format=ndjson|csv)
+ * GET /api/admin/export/bookings            - Stream all bookings (?format=ndjson|csv)
+ */
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private final BookingPartitionExecutor partitionExecutor;
+    private final BookingHoldService bookingHoldService;
+    private final IdempotencyService idempotencyService;
+    private final ExportService exportService;
+    private final FlightCacheService flightCacheService;
+    private final SeatStreamService seatStreamService;
+    private final UserCacheService userCacheService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final PasswordHashingService passwordHashingService;
+    private final RateLimitFilter rateLimitFilter;
+    private final TokenRevocationService tokenRevocationService;
+    private final RouteAnalyticsService routeAnalyticsService;
+
+    @Autowired
+    public AdminController(BookingPartitionExecutor partitionExecutor,
+                           BookingHoldService bookingHoldService,
+                           IdempotencyService idempotencyService,
+                           ExportService exportService,
+                           FlightCacheService flightCacheService,
+                           SeatStreamService seatStreamService,
+                           UserCacheService userCacheService,
+                           JwtTokenProvider jwtTokenProvider,
+                           PasswordHashingService passwordHashingService,
+                           RateLimitFilter rateLimitFilter,
+                           TokenRevocationService tokenRevocationService,
+                           RouteAnalyticsService routeAnalyticsService) {
+        this.partitionExecutor = partitionExecutor;
+        this.bookingHoldService = bookingHoldService;
+        this.idempotencyService = idempotencyService;
+        this.exportService = exportService;
+        this.flightCacheService = flightCacheService;
+        this.seatStreamService = seatStreamService;
+        this.userCacheService = userCacheService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordHashingService = passwordHashingService;
+        this.rateLimitFilter = rateLimitFilter;
+        this.tokenRevocationService = tokenRevocationService;
+        this.routeAnalyticsService = routeAnalyticsService;
+    }
+
+    /**
+     * Get booking partition metrics.
+     */
+    @GetMapping("/metrics/booking-partitions")
+    public ResponseEntity<PartitionMetricsResponse> getBookingPartitionMetrics() {
+        return ResponseEntity.ok(new PartitionMetricsResponse(
+                partitionExecutor.isEnabled(),
+                bookingHoldService.getActiveHolds(),
+                partitionExecutor.getStats()
+        ));
+    }
+
+    /**
+     * Get idempotency store metrics.
+     */
+    @GetMapping("/metrics/idempotency")
+    public ResponseEntity<BoundedCache.Stats> getIdempotencyMetrics() {
+        return ResponseEntity.ok(idempotencyService.getStats());
+    }
+
+    /**
+     * Get flight cache metrics.
+     */
+    @GetMapping("/metrics/flight-cache")
+    public ResponseEntity<FlightCacheService.CacheStats> getFlightCacheMetrics() {
+        return ResponseEntity.ok(flightCacheService.getStats());
+    }
+
+    /**
+     * Get seat stream metrics.
+     */
+    @GetMapping("/metrics/seat-stream")
+    public ResponseEntity<SeatStreamService.StreamStats> getSeatStreamMetrics() {
+        return ResponseEntity.ok(seatStreamService.getStats());
+    }
+
+    /**
+     * Get user cache metrics.
+     */
+    @GetMapping("/metrics/user-cache")
+    public ResponseEntity<BoundedCache.Stats> getUserCacheMetrics() {
+        return ResponseEntity.ok(userCacheService.getStats());
+    }
+
+    /**
+     * Get verified-token cache metrics.
+     */
+    @GetMapping("/metrics/token-cache")
+    public ResponseEntity<BoundedCache.Stats> getTokenCacheMetrics() {
+        return ResponseEntity.ok(jwtTokenProvider.getCacheStats());
+    }
+
+    /**
+     * Get password hashing pool metrics.
+     */
+    @GetMapping("/metrics/password-hashing")
+    public ResponseEntity<PasswordHashingService.HashingStats> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    /**
+     * Get rate limit metrics.
+     */
+    @GetMapping("/metrics/rate-limit")
+    public ResponseEntity<Map<String, RateLimiter.Stats>> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimitFilter.getStats());
+    }
+
+    /**
+     * Get token revocation metrics.
+     */
+    @GetMapping("/metrics/token-revocation")
+    public ResponseEntity<TokenRevocationService.RevocationStats> getTokenRevocationMetrics() {
+        return ResponseEntity.ok(tokenRevocationService.getStats());
+    }
+
+    /**
+     * Get per-route analytics, highest revenue first.
+     */
+    @GetMapping("/analytics/routes")
+    public ResponseEntity<List<RouteAnalyticsService.RouteReport>> getRouteAnalytics() {
+        return ResponseEntity.ok(routeAnalyticsService.getRouteReport());
+    }
+
+    /**
+     * Get per-route analytics by booking day, newest first.
+     */
+    @GetMapping("/analytics/routes/daily")
+    public ResponseEntity<?> getDailyRouteAnalytics(@RequestParam(defaultValue = "30") int days) {
+        try {
+            return ResponseEntity.ok(routeAnalyticsService.getDailyReport(days));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Export all flights, streamed row by row.
+     */
+    @GetMapping("/export/flights")
+    public ResponseEntity<StreamingResponseBody> exportFlights(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        if (exportFormat == null) {
+            return invalidFormat();
+        }
+        return streamed("flights", exportFormat, out -> exportService.exportFlights(exportFormat, out));
+    }
+
+    /**
+     * Export all bookings, streamed row by row.
+     */
+    @GetMapping("/export/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        if (exportFormat == null) {
+            return invalidFormat();
+        }
+        return streamed("bookings", exportFormat, out -> exportService.exportBookings(exportFormat, out));
+    }
+
+    private static ExportService.Format parseFormat(String format) {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Exports must be declared as StreamingResponseBody, so the error is streamed too
+    private static ResponseEntity<StreamingResponseBody> invalidFormat() {
+        byte[] error = "{\"message\":\"Format must be ndjson or csv\"}".getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(error));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamed(String name, ExportService.Format format,
+                                                                  StreamingResponseBody body) {
+        boolean csv = format == ExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    // Response DTOs
+
+    public record PartitionMetricsResponse(
+            boolean enabled,
+            int activeHolds,
+            List<BookingPartitionExecutor.PartitionStats> partitions
+    ) {}
+
+    public record ErrorResponse(String message) {}
+}
@@ -0,0 +1,43 @@
+package com.airport.controller;
+
+import com.airport.service.AirportSuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Airport REST Controller - city lookups for search boxes.
+ *
+ * Endpoints:
+ * GET /api/airports/suggest?q=  - Cities matching what the user has typed so far
+ */
+@RestController
+@RequestMapping("/api/airports")
+@CrossOrigin(origins = "*")
+public class AirportController {
+
+    private final AirportSuggestService airportSuggestService;
+
+    @Autowired
+    public AirportController(AirportSuggestService airportSuggestService) {
+        this.airportSuggestService = airportSuggestService;
+    }
+
+    /**
+     * Suggest origin and destination cities for a partial, possibly misspelled name.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            return ResponseEntity.ok(airportSuggestService.suggest(q, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Response DTOs
+
+    public record ErrorResponse(String message) {}
+}
@@ -2,10 +2,12 @@ package com.airport.controller;
 
 import com.airport.model.User;
 import com.airport.service.AuthService;
+import com.airport.service.PasswordHashingService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +19,10 @@ import org.springframework.web.bind.annotation.*;
  * POST /api/auth/register     - Register new user
  * POST /api/auth/login        - Login and get JWT token
  * POST /api/auth/register/ff  - Register as frequent flyer
+ * POST /api/auth/refresh       - Trade a refresh token for new tokens
+ * POST /api/auth/logout        - Revoke the access token and the refresh token
+ *
+ * Login and registration answer 503 with Retry-After when the password hashing pool is full.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -43,6 +49,8 @@ public class AuthController {
                     request.phoneNumber()
             );
             return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(user));
+        } catch (PasswordHashingService.PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -62,6 +70,8 @@ public class AuthController {
                     request.initialMiles()
             );
             return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(user));
+        } catch (PasswordHashingService.PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -76,14 +86,54 @@ public class AuthController {
             AuthService.AuthResponse response = authService.login(request.email(), request.password());
             return ResponseEntity.ok(new LoginResponse(
                     response.token(),
+                    response.refreshToken(),
                     new UserResponse(response.user())
             ));
+        } catch (PasswordHashingService.PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Trade a refresh token for a new access token and refresh token.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        try {
+            AuthService.AuthResponse response = authService.refresh(request.refreshToken());
+            return ResponseEntity.ok(new LoginResponse(
+                    response.token(),
+                    response.refreshToken(),
+                    new UserResponse(response.user())
+            ));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Logout: revoke the bearer token and the refresh token in the body, if any.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) LogoutRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.refreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<ErrorResponse> busy(PasswordHashingService.PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
     // Request/Response DTOs
     
     public record RegisterRequest(
@@ -106,7 +156,13 @@ public class AuthController {
             @NotBlank(message = "Password is required") String password
     ) {}
 
-    public record LoginResponse(String token, UserResponse user) {}
+    public record RefreshRequest(
+            @NotBlank(message = "Refresh token is required") String refreshToken
+    ) {}
+
+    public record LogoutRequest(String refreshToken) {}
+
+    public record LoginResponse(String token, String refreshToken, UserResponse user) {}
 
     public record UserResponse(
             Long id,
@@ -1,60 +1,101 @@
 package com.airport.controller;
 
 import com.airport.model.Booking;
+import com.airport.model.Flight;
 import com.airport.model.Passenger;
 import com.airport.model.User;
+import com.airport.security.UserPrincipal;
+import com.airport.service.BookingHoldService;
+import com.airport.service.BookingPartitionExecutor;
 import com.airport.service.BookingService;
+import com.airport.service.IdempotencyService;
+import com.airport.service.UserCacheService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Booking REST Controller - handles booking-related HTTP requests.
  * 
  * Endpoints:
- * GET    /api/bookings           - Get user's bookings
+ * GET    /api/bookings           - Get user's bookings (?size=&cursor= for keyset pages)
  * GET    /api/bookings/{id}      - Get booking by ID
  * POST   /api/bookings           - Create new booking
+ * POST   /api/bookings/group     - Book several passengers on one flight
+ * POST   /api/bookings/holds     - Hold a seat for a few minutes
+ * POST   /api/bookings/holds/{id}/confirm - Confirm a held booking
  * DELETE /api/bookings/{id}      - Cancel booking
  * GET    /api/bookings/stats     - Get booking statistics
+ *
+ * Create, group create and cancel accept an optional Idempotency-Key header; a retry with the
+ * same key returns the original response instead of booking or cancelling again.
  */
 @RestController
 @RequestMapping("/api/bookings")
 @CrossOrigin(origins = "*")
 public class BookingController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final BookingService bookingService;
+    private final BookingHoldService bookingHoldService;
+    private final BookingPartitionExecutor partitionExecutor;
+    private final IdempotencyService idempotencyService;
+    private final UserCacheService userCacheService;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService,
+                             BookingHoldService bookingHoldService,
+                             BookingPartitionExecutor partitionExecutor,
+                             IdempotencyService idempotencyService,
+                             UserCacheService userCacheService) {
         this.bookingService = bookingService;
+        this.bookingHoldService = bookingHoldService;
+        this.partitionExecutor = partitionExecutor;
+        this.idempotencyService = idempotencyService;
+        this.userCacheService = userCacheService;
     }
 
     /**
      * Get all bookings for the authenticated user.
      */
     @GetMapping
-    public ResponseEntity<List<BookingResponse>> getMyBookings(@AuthenticationPrincipal User user) {
-        List<Booking> bookings = bookingService.getBookingsByUser(user.getId());
-        List<BookingResponse> responses = bookings.stream()
-                .map(BookingResponse::new)
-                .toList();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<?> getMyBookings(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            if (size != null || cursor != null) {
+                return ResponseEntity.ok(bookingService.getBookingsPage(user.id(), cursor, size)
+                        .map(BookingResponse::new));
+            }
+            List<Booking> bookings = bookingService.getBookingsByUser(user.id());
+            List<BookingResponse> responses = bookings.stream()
+                    .map(BookingResponse::new)
+                    .toList();
+            return ResponseEntity.ok(responses);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
      * Get active bookings for the authenticated user.
      */
     @GetMapping("/active")
-    public ResponseEntity<List<BookingResponse>> getActiveBookings(@AuthenticationPrincipal User user) {
-        List<Booking> bookings = bookingService.getActiveBookingsByUser(user.getId());
+    public ResponseEntity<List<BookingResponse>> getActiveBookings(@AuthenticationPrincipal UserPrincipal user) {
+        List<Booking> bookings = bookingService.getActiveBookingsByUser(user.id());
         List<BookingResponse> responses = bookings.stream()
                 .map(BookingResponse::new)
                 .toList();
@@ -67,9 +108,9 @@ public class BookingController {
     @GetMapping("/{id}")
     public ResponseEntity<BookingResponse> getBookingById(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         return bookingService.getBookingById(id)
-                .filter(booking -> booking.getUser().getId().equals(user.getId()))
+                .filter(booking -> booking.getUser().getId().equals(user.id()))
                 .map(booking -> ResponseEntity.ok(new BookingResponse(booking)))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -80,9 +121,9 @@ public class BookingController {
     @GetMapping("/reference/{reference}")
     public ResponseEntity<BookingResponse> getBookingByReference(
             @PathVariable String reference,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         return bookingService.getBookingByReference(reference)
-                .filter(booking -> booking.getUser().getId().equals(user.getId()))
+                .filter(booking -> booking.getUser().getId().equals(user.id()))
                 .map(booking -> ResponseEntity.ok(new BookingResponse(booking)))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -93,43 +134,94 @@ public class BookingController {
     @PostMapping
     public ResponseEntity<?> createBooking(
             @Valid @RequestBody BookingRequest request,
-            @AuthenticationPrincipal User user) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            return idempotencyService.execute(user.id(), "create", idempotencyKey, request,
+                    () -> book(request, user));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Book a group of passengers on one flight. All seats are booked or none are.
+     */
+    @PostMapping("/group")
+    public ResponseEntity<?> createGroupBooking(
+            @Valid @RequestBody GroupBookingRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            return idempotencyService.execute(user.id(), "create-group", idempotencyKey, request,
+                    () -> bookGroup(request, user));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Hold a seat. The booking stays PENDING until confirmed and is released when the hold expires.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<?> createHold(
+            @Valid @RequestBody HoldRequest request,
+            @AuthenticationPrincipal UserPrincipal user) {
         try {
             Passenger passenger = new Passenger(
                     request.passengerFirstName(),
                     request.passengerLastName(),
                     request.passengerAge(),
-                    Passenger.SeatPreference.valueOf(request.seatPreference().toUpperCase())
+                    request.seatPreference() != null
+                            ? Passenger.SeatPreference.valueOf(request.seatPreference().toUpperCase())
+                            : Passenger.SeatPreference.NO_PREFERENCE
             );
 
-            Booking booking = bookingService.createBooking(
-                    user,
+            Booking booking = bookingHoldService.createHold(
+                    account(user),
                     request.flightId(),
                     passenger,
-                    request.seatNumber()
+                    request.seatNumber(),
+                    request.holdMinutes()
             );
 
             return ResponseEntity.status(HttpStatus.CREATED).body(new BookingResponse(booking));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            return error(e);
         }
     }
 
     /**
-     * Cancel a booking.
+     * Confirm a held booking.
      */
-    @DeleteMapping("/{id}")
-    public ResponseEntity<?> cancelBooking(
+    @PostMapping("/holds/{id}/confirm")
+    public ResponseEntity<?> confirmHold(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         try {
             // Verify booking belongs to user
             Booking booking = bookingService.getBookingById(id)
-                    .filter(b -> b.getUser().getId().equals(user.getId()))
+                    .filter(b -> b.getUser().getId().equals(user.id()))
                     .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-            Booking cancelled = bookingService.cancelBooking(id);
-            return ResponseEntity.ok(new BookingResponse(cancelled));
+            Booking confirmed = bookingHoldService.confirmHold(id, booking.getFlight().getId());
+            return ResponseEntity.ok(new BookingResponse(confirmed));
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * Cancel a booking.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelBooking(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            return idempotencyService.execute(user.id(), "cancel:" + id, idempotencyKey, id,
+                    () -> cancel(id, user));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -141,26 +233,121 @@ public class BookingController {
     @DeleteMapping("/reference/{reference}")
     public ResponseEntity<?> cancelBookingByReference(
             @PathVariable String reference,
-            @AuthenticationPrincipal User user) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            return idempotencyService.execute(user.id(), "cancel:" + reference, idempotencyKey, reference,
+                    () -> cancelByReference(reference, user));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get booking statistics for the authenticated user.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<BookingService.BookingStats> getBookingStats(@AuthenticationPrincipal UserPrincipal user) {
+        return ResponseEntity.ok(bookingService.getBookingStats(user.id()));
+    }
+
+    private ResponseEntity<?> book(BookingRequest request, UserPrincipal user) {
+        try {
+            Passenger passenger = new Passenger(
+                    request.passengerFirstName(),
+                    request.passengerLastName(),
+                    request.passengerAge(),
+                    request.seatPreference() != null
+                            ? Passenger.SeatPreference.valueOf(request.seatPreference().toUpperCase())
+                            : Passenger.SeatPreference.NO_PREFERENCE
+            );
+
+            User account = account(user);
+            Booking booking = partitionExecutor.execute(request.flightId(), () -> bookingService.createBooking(
+                    account,
+                    request.flightId(),
+                    passenger,
+                    request.seatNumber()
+            ));
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(new BookingResponse(booking));
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    private ResponseEntity<?> bookGroup(GroupBookingRequest request, UserPrincipal user) {
+        try {
+            List<BookingService.GroupMember> members = request.passengers().stream()
+                    .map(p -> new BookingService.GroupMember(
+                            new Passenger(
+                                    p.firstName(),
+                                    p.lastName(),
+                                    p.age(),
+                                    p.seatPreference() != null
+                                            ? Passenger.SeatPreference.valueOf(p.seatPreference().toUpperCase())
+                                            : Passenger.SeatPreference.NO_PREFERENCE
+                            ),
+                            p.seatNumber()))
+                    .toList();
+
+            User account = account(user);
+            List<Booking> bookings = partitionExecutor.execute(request.flightId(),
+                    () -> bookingService.createGroupBooking(account, request.flightId(), members));
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(bookings.stream().map(BookingResponse::new).toList());
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    private ResponseEntity<?> cancel(Long id, UserPrincipal user) {
         try {
             // Verify booking belongs to user
-            bookingService.getBookingByReference(reference)
-                    .filter(b -> b.getUser().getId().equals(user.getId()))
+            Booking booking = bookingService.getBookingById(id)
+                    .filter(b -> b.getUser().getId().equals(user.id()))
                     .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-            Booking cancelled = bookingService.cancelBookingByReference(reference);
+            Booking cancelled = partitionExecutor.execute(booking.getFlight().getId(),
+                    () -> bookingService.cancelBooking(id));
             return ResponseEntity.ok(new BookingResponse(cancelled));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            return error(e);
+        }
+    }
+
+    private ResponseEntity<?> cancelByReference(String reference, UserPrincipal user) {
+        try {
+            // Verify booking belongs to user
+            Booking booking = bookingService.getBookingByReference(reference)
+                    .filter(b -> b.getUser().getId().equals(user.id()))
+                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+            Booking cancelled = partitionExecutor.execute(booking.getFlight().getId(),
+                    () -> bookingService.cancelBookingByReference(reference));
+            return ResponseEntity.ok(new BookingResponse(cancelled));
+        } catch (RuntimeException e) {
+            return error(e);
         }
     }
 
     /**
-     * Get booking statistics for the authenticated user.
+     * 503 with Retry-After when a booking partition turned the command away without
+     * running it, so a retry is safe; 400 for everything else.
      */
-    @GetMapping("/stats")
-    public ResponseEntity<BookingService.BookingStats> getBookingStats(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(bookingService.getBookingStats(user.getId()));
+    private ResponseEntity<ErrorResponse> error(RuntimeException e) {
+        if (e instanceof BookingPartitionExecutor.PartitionBusyException busy) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Integer.toString(busy.getRetryAfterSeconds()))
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    private User account(UserPrincipal user) {
+        return userCacheService.getById(user.id())
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     // Request/Response DTOs
@@ -171,7 +358,30 @@ public class BookingController {
             @NotBlank(message = "Passenger last name is required") String passengerLastName,
             int passengerAge,
             String seatPreference,
-            @NotBlank(message = "Seat number is required") String seatNumber
+            String seatNumber
+    ) {}
+
+    public record GroupBookingRequest(
+            @NotNull(message = "Flight ID is required") Long flightId,
+            @NotEmpty(message = "At least one passenger is required") List<@Valid GroupPassengerRequest> passengers
+    ) {}
+
+    public record GroupPassengerRequest(
+            @NotBlank(message = "Passenger first name is required") String firstName,
+            @NotBlank(message = "Passenger last name is required") String lastName,
+            int age,
+            String seatPreference,
+            String seatNumber
+    ) {}
+
+    public record HoldRequest(
+            @NotNull(message = "Flight ID is required") Long flightId,
+            @NotBlank(message = "Passenger first name is required") String passengerFirstName,
+            @NotBlank(message = "Passenger last name is required") String passengerLastName,
+            int passengerAge,
+            String seatPreference,
+            String seatNumber,
+            Integer holdMinutes
     ) {}
 
     public record BookingResponse(
@@ -186,8 +396,11 @@ public class BookingController {
             double totalPrice,
             double discountAmount,
             String status,
-            String bookingDate
+            String bookingDate,
+            String holdExpiresAt
     ) {
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern(Flight.TIME_PATTERN, Locale.US);
+
         public BookingResponse(Booking booking) {
             this(
                     booking.getId(),
@@ -195,13 +408,14 @@ public class BookingController {
                     booking.getFlight().getFlightNumber(),
                     booking.getFlight().getOrigin(),
                     booking.getFlight().getDestination(),
-                    booking.getFlight().getDepartureTime(),
+                    booking.getFlight().getDepartureTime().format(TIME_FORMAT),
                     booking.getPassenger().getFullName(),
                     booking.getSeatNumber(),
                     booking.getTotalPrice(),
                     booking.getDiscountAmount(),
                     booking.getStatus().name(),
-                    booking.getBookingDate().toString()
+                    booking.getBookingDate().toString(),
+                    booking.getHoldExpiresAt() != null ? booking.getHoldExpiresAt().toString() : null
             );
         }
     }
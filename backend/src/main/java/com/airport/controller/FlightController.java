@@ -1,25 +1,42 @@
 package com.airport.controller;
 
 import com.airport.model.Flight;
+import com.airport.service.CatalogVersion;
+import com.airport.service.ConnectionSearchService;
 import com.airport.service.FlightService;
+import com.airport.service.SeatMap;
+import com.airport.service.SeatStreamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Flight REST Controller - handles flight-related HTTP requests.
  * 
  * Endpoints:
- * GET    /api/flights          - List all flights
+ * GET    /api/flights          - List all flights (?size=&cursor= for keyset pages)
  * GET    /api/flights/{id}     - Get flight by ID
- * GET    /api/flights/search   - Search flights
+ * GET    /api/flights/{id}/seatmap - Get seat map
+ * GET    /api/flights/seats/stream?ids= - Live seat counts (Server-Sent Events)
+ * GET    /api/flights/search   - Search flights (?departAfter=&departBefore= for a time window)
+ * GET    /api/flights/search/connections - Direct and connecting itineraries
  * POST   /api/flights          - Create new flight (Admin)
  * PUT    /api/flights/{id}     - Update flight (Admin)
  * DELETE /api/flights/{id}     - Delete flight (Admin)
+ *
+ * The flight lists carry an ETag from the catalog version and answer a matching
+ * If-None-Match with 304 Not Modified without a query. The version is kept per
+ * instance; changes made elsewhere move it within one catalog sync interval.
  */
 @RestController
 @RequestMapping("/api/flights")
@@ -27,26 +44,63 @@ import java.util.List;
 public class FlightController {
 
     private final FlightService flightService;
+    private final ConnectionSearchService connectionSearchService;
+    private final CatalogVersion catalogVersion;
+    private final SeatStreamService seatStreamService;
 
     @Autowired
-    public FlightController(FlightService flightService) {
+    public FlightController(FlightService flightService,
+                            ConnectionSearchService connectionSearchService,
+                            CatalogVersion catalogVersion,
+                            SeatStreamService seatStreamService) {
         this.flightService = flightService;
+        this.connectionSearchService = connectionSearchService;
+        this.catalogVersion = catalogVersion;
+        this.seatStreamService = seatStreamService;
     }
 
     /**
      * Get all flights.
      */
     @GetMapping
-    public ResponseEntity<List<Flight>> getAllFlights() {
-        return ResponseEntity.ok(flightService.getAllFlights());
+    public ResponseEntity<?> getAllFlights(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
+        try {
+            if (size != null || cursor != null) {
+                return catalog(etag, flightService.getFlightsPage(cursor, size));
+            }
+            return catalog(etag, flightService.getAllFlights());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
      * Get all available flights (with seats).
      */
     @GetMapping("/available")
-    public ResponseEntity<List<Flight>> getAvailableFlights() {
-        return ResponseEntity.ok(flightService.getAvailableFlights());
+    public ResponseEntity<?> getAvailableFlights(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
+        try {
+            if (size != null || cursor != null) {
+                return catalog(etag, flightService.getAvailableFlightsPage(cursor, size));
+            }
+            return catalog(etag, flightService.getAvailableFlights());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -59,6 +113,28 @@ public class FlightController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get the seat map for a flight.
+     */
+    @GetMapping("/{id}/seatmap")
+    public ResponseEntity<SeatMapResponse> getSeatMap(@PathVariable Long id) {
+        return flightService.getSeatMap(id)
+                .map(seatMap -> ResponseEntity.ok(new SeatMapResponse(id, seatMap)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stream seat counts for a comma-separated list of flight ids, instead of polling.
+     */
+    @GetMapping(path = "/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeats(@RequestParam String ids) {
+        try {
+            return ResponseEntity.ok(seatStreamService.subscribe(parseIds(ids)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(errorStream(e.getMessage()));
+        }
+    }
+
     /**
      * Get flight by flight number.
      */
@@ -73,36 +149,86 @@ public class FlightController {
      * Search flights by destination.
      */
     @GetMapping("/search/destination/{destination}")
-    public ResponseEntity<List<Flight>> searchByDestination(@PathVariable String destination) {
-        return ResponseEntity.ok(flightService.searchByDestination(destination));
+    public ResponseEntity<?> searchByDestination(
+            @PathVariable String destination,
+            @RequestParam(required = false) String departAfter,
+            @RequestParam(required = false) String departBefore) {
+        try {
+            return ResponseEntity.ok(flightService.searchByDestination(destination,
+                    flightService.parseWindowTime(departAfter), flightService.parseWindowTime(departBefore)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
      * Search flights by origin.
      */
     @GetMapping("/search/origin/{origin}")
-    public ResponseEntity<List<Flight>> searchByOrigin(@PathVariable String origin) {
-        return ResponseEntity.ok(flightService.searchByOrigin(origin));
+    public ResponseEntity<?> searchByOrigin(
+            @PathVariable String origin,
+            @RequestParam(required = false) String departAfter,
+            @RequestParam(required = false) String departBefore) {
+        try {
+            return ResponseEntity.ok(flightService.searchByOrigin(origin,
+                    flightService.parseWindowTime(departAfter), flightService.parseWindowTime(departBefore)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
      * Search flights by route (origin and destination).
      */
     @GetMapping("/search/route")
-    public ResponseEntity<List<Flight>> searchByRoute(
+    public ResponseEntity<?> searchByRoute(
             @RequestParam String origin,
-            @RequestParam String destination) {
-        return ResponseEntity.ok(flightService.searchByRoute(origin, destination));
+            @RequestParam String destination,
+            @RequestParam(required = false) String departAfter,
+            @RequestParam(required = false) String departBefore) {
+        try {
+            return ResponseEntity.ok(flightService.searchByRoute(origin, destination,
+                    flightService.parseWindowTime(departAfter), flightService.parseWindowTime(departBefore)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
      * Search available flights by route.
      */
     @GetMapping("/search/available")
-    public ResponseEntity<List<Flight>> searchAvailableByRoute(
+    public ResponseEntity<?> searchAvailableByRoute(
             @RequestParam String origin,
-            @RequestParam String destination) {
-        return ResponseEntity.ok(flightService.searchAvailableByRoute(origin, destination));
+            @RequestParam String destination,
+            @RequestParam(required = false) String departAfter,
+            @RequestParam(required = false) String departBefore) {
+        try {
+            return ResponseEntity.ok(flightService.searchAvailableByRoute(origin, destination,
+                    flightService.parseWindowTime(departAfter), flightService.parseWindowTime(departBefore)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Search itineraries with up to two stops, best first by price or arrival time.
+     */
+    @GetMapping("/search/connections")
+    public ResponseEntity<?> searchConnections(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(defaultValue = "2") int maxStops,
+            @RequestParam(defaultValue = "price") String sort,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            ConnectionSearchService.SortBy sortBy = ConnectionSearchService.SortBy.valueOf(sort.toUpperCase());
+            return ResponseEntity.ok(connectionSearchService.search(origin, destination, maxStops, sortBy, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Sort must be price or arrival"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -118,14 +244,18 @@ public class FlightController {
      * Update an existing flight (Admin only).
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Flight> updateFlight(
+    public ResponseEntity<?> updateFlight(
             @PathVariable Long id,
             @Valid @RequestBody Flight flight) {
         try {
             Flight updated = flightService.updateFlight(id, flight);
             return ResponseEntity.ok(updated);
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            if (flightService.getFlightById(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            // e.g. a capacity below the seats already sold
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
@@ -137,4 +267,66 @@ public class FlightController {
         flightService.deleteFlight(id);
         return ResponseEntity.noContent().build();
     }
+
+    // checkNotModified has already set the status and ETag header
+    private static ResponseEntity<?> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
+    // Clients may keep the list but must revalidate it before every use
+    private static ResponseEntity<?> catalog(String etag, Object body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    private static List<Long> parseIds(String ids) {
+        List<Long> result = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            try {
+                result.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid flight id: " + id.trim());
+            }
+        }
+        return result;
+    }
+
+    // Streams must be returned as SseEmitter, so errors are sent as a single "error" event
+    private static SseEmitter errorStream(String message) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name("error").data(message));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // Response DTOs
+
+    public record ErrorResponse(String message) {}
+
+    /**
+     * Seat map in compact form: occupied is a URL-safe Base64 bitmap with one bit
+     * per seat, numbered row by row across the layout (bit 0 = 1A).
+     */
+    public record SeatMapResponse(
+            Long flightId,
+            String layout,
+            int rows,
+            int capacity,
+            int occupiedCount,
+            String occupied
+    ) {
+        public SeatMapResponse(Long flightId, SeatMap seatMap) {
+            this(
+                    flightId,
+                    seatMap.getLayout(),
+                    seatMap.getRows(),
+                    seatMap.getCapacity(),
+                    seatMap.getOccupiedCount(),
+                    seatMap.encode()
+            );
+        }
+    }
 }
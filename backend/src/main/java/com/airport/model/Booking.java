@@ -2,6 +2,8 @@ package com.airport.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Booking entity - represents a flight booking/reservation.
@@ -9,11 +11,16 @@ import java.time.LocalDateTime;
  * Adapted from original Booking.java for JPA persistence.
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", uniqueConstraints = @UniqueConstraint(
+        name = Booking.HELD_SEAT_KEY, columnNames = {"flight_id", "held_seat"}))
 public class Booking {
 
+    // Unique key that lets one booking at a time hold a seat, across all instances
+    public static final String HELD_SEAT_KEY = "uk_bookings_held_seat";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -35,15 +42,30 @@ public class Booking {
 
     private String seatNumber;
 
+    // The seat number while the booking holds it, null once it does not. Nulls are
+    // not compared by the unique key, so cancelled bookings never block a seat
+    @Column(name = "held_seat", updatable = false)
+    private String heldSeat;
+
     private double totalPrice;
 
+    // Only set on insert; later changes go through conditional BookingRepository statements
     @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
     private BookingStatus status = BookingStatus.CONFIRMED;
 
+    // When a PENDING hold releases its seat unless confirmed; written like status
+    @Column(updatable = false)
+    private LocalDateTime holdExpiresAt;
+
     public enum BookingStatus {
         PENDING, CONFIRMED, CANCELLED, COMPLETED
     }
 
+    // Statuses in which a booking occupies a seat on its flight
+    public static final Set<BookingStatus> SEAT_HOLDING_STATUSES =
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+
     // Default constructor
     public Booking() {
         this.bookingDate = LocalDateTime.now();
@@ -55,18 +77,12 @@ public class Booking {
         this.flight = flight;
         this.passenger = passenger;
         this.seatNumber = seatNumber;
+        this.heldSeat = seatNumber;
         this.bookingDate = LocalDateTime.now();
-        this.bookingReference = generateBookingReference();
+        // The reference is assigned by BookingService from BookingReferenceGenerator
         calculateTotalPrice();
     }
 
-    /**
-     * Generate a unique booking reference.
-     */
-    private String generateBookingReference() {
-        return "TXR" + System.currentTimeMillis() % 1000000;
-    }
-
     /**
      * Calculate total price with customer discount.
      * Preserves polymorphic discount calculation from original design.
@@ -80,24 +96,42 @@ public class Booking {
     }
 
     /**
-     * Confirm the booking by reserving a seat on the flight.
+     * Confirm the booking. The seat must already be reserved.
      */
-    public boolean confirm() {
-        if (flight != null && flight.bookSeat()) {
-            this.status = BookingStatus.CONFIRMED;
-            return true;
-        }
-        return false;
+    public void confirm() {
+        this.status = BookingStatus.CONFIRMED;
+        this.holdExpiresAt = null;
+    }
+
+    /**
+     * Put the booking on hold until the given time. The seat must already be reserved.
+     */
+    public void hold(LocalDateTime expiresAt) {
+        this.status = BookingStatus.PENDING;
+        this.holdExpiresAt = expiresAt;
     }
 
     /**
-     * Cancel the booking and release the seat.
+     * Check whether a hold has run past its expiry time.
      */
-    public void cancel() {
-        if (flight != null && status == BookingStatus.CONFIRMED) {
-            flight.cancelSeat();
+    public boolean isHoldExpired() {
+        return status == BookingStatus.PENDING
+                && holdExpiresAt != null
+                && !LocalDateTime.now().isBefore(holdExpiresAt);
+    }
+
+    /**
+     * Cancel the booking. Returns true if it was holding a seat that
+     * should be released.
+     */
+    public boolean cancel() {
+        if (SEAT_HOLDING_STATUSES.contains(status)) {
             this.status = BookingStatus.CANCELLED;
+            this.holdExpiresAt = null;
+            this.heldSeat = null;
+            return true;
         }
+        return false;
     }
 
     /**
@@ -165,6 +199,9 @@ public class Booking {
 
     public void setSeatNumber(String seatNumber) {
         this.seatNumber = seatNumber;
+        if (SEAT_HOLDING_STATUSES.contains(status)) {
+            this.heldSeat = seatNumber;
+        }
     }
 
     public double getTotalPrice() {
@@ -183,6 +220,14 @@ public class Booking {
         this.status = status;
     }
 
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) {
+        this.holdExpiresAt = holdExpiresAt;
+    }
+
     @Override
     public String toString() {
         return "Booking{" +
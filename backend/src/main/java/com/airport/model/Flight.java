@@ -1,20 +1,28 @@
 package com.airport.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.time.LocalTime;
+
 /**
  * Flight entity - represents a flight in the airport system.
  * Adapted from original Flight.java for JPA persistence.
  */
 @Entity
-@Table(name = "flights")
+@Table(name = "flights", indexes = @Index(name = "idx_flights_departure_time", columnList = "departure_time"))
 public class Flight {
 
+    public static final String TIME_PATTERN = "hh:mm a";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+    @SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Flight number is required")
@@ -27,53 +35,71 @@ public class Flight {
     @NotBlank(message = "Destination is required")
     private String destination;
 
-    @NotBlank(message = "Departure time is required")
-    private String departureTime;
+    // Flights have no dates; times are sent as "08:00 AM" like the old string column
+    @NotNull(message = "Departure time is required")
+    @JsonFormat(pattern = TIME_PATTERN, locale = "en_US")
+    private LocalTime departureTime;
+
+    // Optional; an arrival earlier than the departure lands the next day
+    @JsonFormat(pattern = TIME_PATTERN, locale = "en_US")
+    private LocalTime arrivalTime;
 
     @Min(value = 1, message = "Capacity must be at least 1")
     private int capacity;
 
+    // Only set on insert; later changes go through SeatInventoryService statements
     @Min(value = 0, message = "Available seats cannot be negative")
+    @Column(updatable = false)
     private int availableSeats;
 
     @Positive(message = "Base price must be positive")
     private double basePrice;
 
+    // Raised by every statement that changes the row, on any instance; the catalog ETag is built from it
+    @JsonIgnore
+    @Column(updatable = false)
+    private long revision;
+
     // Default constructor (required by JPA)
     public Flight() {
     }
 
     // Parameterized constructor
     public Flight(String flightNumber, String origin, String destination,
-                  String departureTime, int capacity, double basePrice) {
+                  LocalTime departureTime, int capacity, double basePrice) {
+        this(flightNumber, origin, destination, departureTime, null, capacity, basePrice);
+    }
+
+    public Flight(String flightNumber, String origin, String destination,
+                  LocalTime departureTime, LocalTime arrivalTime, int capacity, double basePrice) {
         this.flightNumber = flightNumber;
         this.origin = origin;
         this.destination = destination;
         this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
         this.capacity = capacity;
         this.availableSeats = capacity;
         this.basePrice = basePrice;
     }
 
     // Business logic methods
-    public synchronized boolean bookSeat() {
-        if (availableSeats > 0) {
-            availableSeats--;
-            return true;
-        }
-        return false;
-    }
-
-    public synchronized void cancelSeat() {
-        if (availableSeats < capacity) {
-            availableSeats++;
-        }
-    }
-
+    // Seat counts are changed through SeatInventoryService, not on the entity
     public boolean hasAvailableSeats() {
         return availableSeats > 0;
     }
 
+    /**
+     * Detached copy with the given seat count, for in-memory caches and indexes.
+     */
+    public Flight copyWithAvailableSeats(int availableSeats) {
+        Flight copy = new Flight(flightNumber, origin, destination, departureTime, arrivalTime,
+                capacity, basePrice);
+        copy.setId(id);
+        copy.setAvailableSeats(availableSeats);
+        copy.setRevision(revision);
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -107,14 +133,22 @@ public class Flight {
         this.destination = destination;
     }
 
-    public String getDepartureTime() {
+    public LocalTime getDepartureTime() {
         return departureTime;
     }
 
-    public void setDepartureTime(String departureTime) {
+    public void setDepartureTime(LocalTime departureTime) {
         this.departureTime = departureTime;
     }
 
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
     public int getCapacity() {
         return capacity;
     }
@@ -131,6 +165,14 @@ public class Flight {
         this.availableSeats = availableSeats;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
     public double getBasePrice() {
         return basePrice;
     }
@@ -145,7 +187,8 @@ public class Flight {
                 "flightNumber='" + flightNumber + '\'' +
                 ", origin='" + origin + '\'' +
                 ", destination='" + destination + '\'' +
-                ", departureTime='" + departureTime + '\'' +
+                ", departureTime=" + departureTime +
+                ", arrivalTime=" + arrivalTime +
                 ", availableSeats=" + availableSeats + "/" + capacity +
                 ", basePrice=$" + String.format("%.2f", basePrice) +
                 '}';
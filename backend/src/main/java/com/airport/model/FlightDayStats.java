@@ -0,0 +1,89 @@
+package com.airport.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Flight day stats entity - running booking totals for one flight and booking day.
+ *
+ * Kept up to date by RouteAnalyticsService in the same transaction as each booking
+ * change, so route reports read these rows instead of the bookings table and see
+ * the bookings of every instance.
+ */
+@Entity
+@Table(name = "flight_day_stats")
+@IdClass(FlightDayStats.Key.class)
+public class FlightDayStats {
+
+    @Id
+    private Long flightId;
+
+    // The day the bookings were made, not the day of the flight
+    @Id
+    private LocalDate bookingDay;
+
+    private long bookings;
+
+    private long cancellations;
+
+    // Price of all bookings not cancelled, holds included
+    private double revenue;
+
+    // Default constructor
+    public FlightDayStats() {
+    }
+
+    // Getters
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public LocalDate getBookingDay() {
+        return bookingDay;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getCancellations() {
+        return cancellations;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Primary key: flight and booking day.
+     */
+    public static class Key implements Serializable {
+
+        private Long flightId;
+        private LocalDate bookingDay;
+
+        public Key() {
+        }
+
+        public Key(Long flightId, LocalDate bookingDay) {
+            this.flightId = flightId;
+            this.bookingDay = bookingDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key
+                    && Objects.equals(flightId, key.flightId)
+                    && Objects.equals(bookingDay, key.bookingDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(flightId, bookingDay);
+        }
+    }
+}
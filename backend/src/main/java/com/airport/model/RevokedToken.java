@@ -0,0 +1,57 @@
+package com.airport.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Revoked token entity - an access token id (jti) refused until the token expires.
+ *
+ * Rows past their expiry are useless, since the token is rejected anyway, and are
+ * purged periodically.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_id", unique = true, nullable = false, length = 36)
+    private String tokenId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Default constructor
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String tokenId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.revokedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.airport.model;
+
+import jakarta.persistence.*;
+
+/**
+ * User booking stats entity - running booking totals for one user.
+ *
+ * Kept up to date by BookingStatsService in the same transaction as each booking
+ * change, so reading a user's statistics is a primary key lookup however many
+ * bookings they have.
+ */
+@Entity
+@Table(name = "user_booking_stats")
+public class UserBookingStats {
+
+    // The user's id; the row is created with the user, not generated
+    @Id
+    private Long userId;
+
+    private long totalBookings;
+
+    private long confirmedBookings;
+
+    private long cancelledBookings;
+
+    // Price of all bookings not cancelled, holds included
+    private double totalSpent;
+
+    // Default constructor
+    public UserBookingStats() {
+    }
+
+    public UserBookingStats(Long userId, long totalBookings, long confirmedBookings,
+                            long cancelledBookings, double totalSpent) {
+        this.userId = userId;
+        this.totalBookings = totalBookings;
+        this.confirmedBookings = confirmedBookings;
+        this.cancelledBookings = cancelledBookings;
+        this.totalSpent = totalSpent;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+
+    public long getConfirmedBookings() {
+        return confirmedBookings;
+    }
+
+    public long getCancelledBookings() {
+        return cancelledBookings;
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+}
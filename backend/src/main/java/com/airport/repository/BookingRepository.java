@@ -2,9 +2,15 @@ package com.airport.repository;
 
 import com.airport.model.Booking;
 import com.airport.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +26,58 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByStatus(Booking.BookingStatus status);
     
     List<Booking> findByUserIdAndStatus(Long userId, Booking.BookingStatus status);
+
+    /**
+     * Current status read from the database, bypassing any copy already loaded.
+     */
+    @Query("SELECT b.status FROM Booking b WHERE b.id = ?1")
+    Optional<Booking.BookingStatus> findStatusById(Long bookingId);
+
+    /**
+     * Move a booking from one status to another that holds no seat in a single
+     * statement, clearing any hold expiry and freeing its held seat key. Returns 1
+     * for the one caller that makes the change, 0 if the booking no longer has the
+     * expected status.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ?3, b.holdExpiresAt = NULL, b.heldSeat = NULL " +
+           "WHERE b.id = ?1 AND b.status = ?2")
+    int changeStatus(Long bookingId, Booking.BookingStatus expected, Booking.BookingStatus status);
+
+    /**
+     * Confirm a hold in a single statement. Returns 1 if it was still PENDING and
+     * unexpired at now, 0 if it was confirmed, cancelled or expired meanwhile.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ?4, b.holdExpiresAt = NULL WHERE b.id = ?1 AND b.status = ?3 " +
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > ?2)")
+    int confirmHold(Long bookingId, LocalDateTime now, Booking.BookingStatus pending,
+                    Booking.BookingStatus confirmed);
+
+    /**
+     * Cancel an expired hold in a single statement, freeing its held seat key. Returns
+     * 1 if it was still PENDING and past its expiry at now, 0 if it was confirmed,
+     * cancelled or is not yet due.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ?4, b.holdExpiresAt = NULL, b.heldSeat = NULL " +
+           "WHERE b.id = ?1 AND b.status = ?3 AND b.holdExpiresAt <= ?2")
+    int expireHold(Long bookingId, LocalDateTime now, Booking.BookingStatus pending,
+                   Booking.BookingStatus cancelled);
+
+    /**
+     * Keyset page of a user's bookings with id above afterId, in id order.
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.flight JOIN FETCH b.passenger " +
+           "WHERE b.user.id = ?1 AND b.id > ?2 ORDER BY b.id")
+    List<Booking> findPageByUserAfter(Long userId, Long afterId, Pageable page);
+
+    @Query("SELECT b.flight.id, COUNT(b) FROM Booking b WHERE b.status IN ?1 GROUP BY b.flight.id")
+    List<Object[]> countSeatsByFlight(Collection<Booking.BookingStatus> statuses);
+
+    @Query("SELECT b.seatNumber FROM Booking b WHERE b.flight.id = ?1 AND b.status IN ?2")
+    List<String> findSeatNumbersByFlight(Long flightId, Collection<Booking.BookingStatus> statuses);
 }
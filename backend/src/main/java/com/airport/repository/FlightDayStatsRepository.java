@@ -0,0 +1,34 @@
+package com.airport.repository;
+
+import com.airport.model.FlightDayStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FlightDayStatsRepository extends JpaRepository<FlightDayStats, FlightDayStats.Key> {
+
+    /**
+     * Add to a flight day's totals in a single statement. Returns 0 if the day has no row yet.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FlightDayStats s SET s.bookings = s.bookings + ?3, " +
+           "s.cancellations = s.cancellations + ?4, s.revenue = s.revenue + ?5 " +
+           "WHERE s.flightId = ?1 AND s.bookingDay = ?2")
+    int add(Long flightId, LocalDate bookingDay, long bookings, long cancellations, double revenue);
+
+    /**
+     * Totals per flight over all days, as [flightId, bookings, cancellations, revenue].
+     */
+    @Query("SELECT s.flightId, SUM(s.bookings), SUM(s.cancellations), SUM(s.revenue) " +
+           "FROM FlightDayStats s GROUP BY s.flightId")
+    List<Object[]> sumByFlight();
+
+    List<FlightDayStats> findByBookingDayGreaterThanEqual(LocalDate oldest);
+}
@@ -1,9 +1,12 @@
 package com.airport.repository;
 
 import com.airport.model.Flight;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,16 +16,66 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
     
     Optional<Flight> findByFlightNumber(String flightNumber);
     
-    List<Flight> findByDestinationIgnoreCase(String destination);
-    
-    List<Flight> findByOriginIgnoreCase(String origin);
-    
-    @Query("SELECT f FROM Flight f WHERE f.availableSeats > 0")
-    List<Flight> findAvailableFlights();
-    
-    @Query("SELECT f FROM Flight f WHERE LOWER(f.origin) = LOWER(?1) AND LOWER(f.destination) = LOWER(?2)")
-    List<Flight> findByRoute(String origin, String destination);
-    
-    @Query("SELECT f FROM Flight f WHERE LOWER(f.origin) = LOWER(?1) AND LOWER(f.destination) = LOWER(?2) AND f.availableSeats > 0")
-    List<Flight> findAvailableByRoute(String origin, String destination);
+    // Origin/destination searches are served by RouteIndexService
+
+    /**
+     * Keyset page: flights with id above afterId in id order, up to the page size.
+     */
+    @Query("SELECT f FROM Flight f WHERE f.id > ?1 ORDER BY f.id")
+    List<Flight> findPageAfter(Long afterId, Pageable page);
+
+    @Query("SELECT f FROM Flight f WHERE f.availableSeats > 0 AND f.id > ?1 ORDER BY f.id")
+    List<Flight> findAvailablePageAfter(Long afterId, Pageable page);
+
+    /**
+     * Take one seat in a single statement. Returns 1 if a seat was taken, 0 if the flight is full.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats - 1, f.revision = f.revision + 1 " +
+           "WHERE f.id = ?1 AND f.availableSeats > 0")
+    int reserveSeat(Long flightId);
+
+    /**
+     * Take several seats in a single statement, all or none. Returns 1 if taken, 0 if not enough seats.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats - ?2, f.revision = f.revision + 1 " +
+           "WHERE f.id = ?1 AND f.availableSeats >= ?2")
+    int reserveSeats(Long flightId, int count);
+
+    /**
+     * Give back one seat in a single statement. Returns 1 if a seat was released, 0 if already at capacity.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats + 1, f.revision = f.revision + 1 " +
+           "WHERE f.id = ?1 AND f.availableSeats < f.capacity")
+    int releaseSeat(Long flightId);
+
+    /**
+     * Change the capacity and shift available seats by the same amount in a single
+     * statement. Returns 0 if the new capacity is below the seats already sold.
+     * Available seats is assigned first, so it reads the old capacity on every database.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats + ?2 - f.capacity, f.capacity = ?2, " +
+           "f.revision = f.revision + 1 WHERE f.id = ?1 AND f.capacity - f.availableSeats <= ?2")
+    int resize(Long flightId, int capacity);
+
+    /**
+     * Raise a flight's revision after an edit made through the entity.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Flight f SET f.revision = f.revision + 1 WHERE f.id = ?1")
+    int touch(Long flightId);
+
+    /**
+     * [id, revision] of every flight, to find rows changed by other instances.
+     */
+    @Query("SELECT f.id, f.revision FROM Flight f")
+    List<Object[]> findRevisions();
 }
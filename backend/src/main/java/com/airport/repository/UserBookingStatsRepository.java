@@ -0,0 +1,22 @@
+package com.airport.repository;
+
+import com.airport.model.UserBookingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserBookingStatsRepository extends JpaRepository<UserBookingStats, Long> {
+
+    /**
+     * Add to a user's totals in a single statement. Returns 0 if the user has no row yet.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserBookingStats s SET s.totalBookings = s.totalBookings + ?2, " +
+           "s.confirmedBookings = s.confirmedBookings + ?3, s.cancelledBookings = s.cancelledBookings + ?4, " +
+           "s.totalSpent = s.totalSpent + ?5 WHERE s.userId = ?1")
+    int add(Long userId, long total, long confirmed, long cancelled, double spent);
+}
@@ -1,7 +1,7 @@
 package com.airport.security;
 
-import com.airport.model.User;
-import com.airport.repository.UserRepository;
+import com.airport.config.SecurityConfig;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,6 +20,9 @@ import java.util.Collections;
 
 /**
  * JWT Authentication Filter - validates JWT tokens on incoming requests.
+ *
+ * The principal is a UserPrincipal built from the token's claims, so no user
+ * lookup happens per request. Public endpoints are not filtered at all.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,8 +30,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
-    @Autowired
-    private UserRepository userRepository;
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SecurityConfig.PUBLIC_ENDPOINTS.matches(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,24 +42,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                
-                User user = userRepository.findByEmail(email).orElse(null);
-                
-                if (user != null) {
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    user,
-                                    null,
-                                    Collections.singletonList(
-                                            new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-                                    )
-                            );
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+            if (StringUtils.hasText(jwt)) {
+                UserPrincipal principal = tokenProvider.getPrincipalFromToken(jwt);
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                                principal,
+                                null,
+                                Collections.singletonList(
+                                        new SimpleGrantedAuthority("ROLE_" + principal.role().name())
+                                )
+                        );
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid or expired token - the request continues unauthenticated
+            logger.debug("Rejected JWT: " + ex.getMessage());
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
@@ -1,6 +1,8 @@
 package com.airport.security;
 
 import com.airport.model.User;
+import com.airport.service.TokenRevocationService;
+import com.airport.util.BoundedCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,33 +10,60 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
 
 /**
  * JWT Token Provider - handles JWT token generation and validation.
+ *
+ * The signing key and parser are built once; both are immutable and thread-safe.
+ * Each token is parsed and verified once per request, and the principal of a
+ * recently verified token is cached under the token's SHA-256 digest until the
+ * cache TTL or the token's own expiry, whichever comes first. Only tokens that
+ * verified are cached, so a forged token always goes through the parser.
+ *
+ * Access tokens are short-lived and carry a unique id (jti), checked against
+ * TokenRevocationService on every use, cached or not. Refresh tokens are opaque
+ * random strings; AuthService stores their digests.
  */
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final BoundedCache<String, Verified> verified;
+    private final TokenRevocationService tokenRevocationService;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenProvider(TokenRevocationService tokenRevocationService,
+                            @Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration}") long jwtExpiration,
+                            @Value("${jwt.verify-cache.max-entries:10000}") int cacheEntries,
+                            @Value("${jwt.verify-cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.verified = new BoundedCache<>(cacheEntries, Duration.ofSeconds(cacheTtlSeconds));
     }
 
     /**
-     * Generate JWT token for a user.
+     * Generate a short-lived access token for a user.
      */
     public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getEmail())
                 .claim("userId", user.getId())
                 .claim("name", user.getName())
@@ -42,34 +71,76 @@ public class JwtTokenProvider {
                 .claim("customerType", user.getCustomerType().name())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Generate an opaque refresh token: 256 random bits, URL-safe.
+     */
+    public String generateRefreshToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Parse and verify the token once, returning all of its claims. Throws
+     * JwtException or IllegalArgumentException if it is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     /**
      * Get email from token.
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token).getSubject();
+    }
 
-        return claims.getSubject();
+    /**
+     * Build the principal from the token's claims, or take it from the cache if
+     * the same token verified recently. Throws JwtException or
+     * IllegalArgumentException if the token is invalid, expired, revoked or incomplete.
+     */
+    public UserPrincipal getPrincipalFromToken(String token) {
+        String digest = digest(token);
+        Verified cached = verified.get(digest);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAtMillis()) {
+                checkNotRevoked(cached.tokenId());
+                return cached.principal();
+            }
+            // Expired since it was cached; the parser reports it
+            verified.remove(digest);
+        }
+
+        Claims claims = parseClaims(token);
+        checkNotRevoked(claims.getId());
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        String customerType = claims.get("customerType", String.class);
+        if (userId == null || role == null || customerType == null) {
+            throw new IllegalArgumentException("Token is missing user claims");
+        }
+        UserPrincipal principal = new UserPrincipal(
+                userId,
+                claims.getSubject(),
+                User.Role.valueOf(role),
+                User.CustomerType.valueOf(customerType)
+        );
+        if (claims.getExpiration() != null) {
+            verified.put(digest, new Verified(principal, claims.getId(), claims.getExpiration().getTime()));
+        }
+        return principal;
     }
 
     /**
      * Get user ID from token.
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("userId", Long.class);
+        return parseClaims(token).get("userId", Long.class);
     }
 
     /**
@@ -77,13 +148,36 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    public BoundedCache.Stats getCacheStats() {
+        return verified.stats();
+    }
+
+    private void checkNotRevoked(String tokenId) {
+        // Tokens issued before ids were added cannot be revoked; they expire on their own
+        if (tokenId != null && tokenRevocationService.isRevoked(tokenId)) {
+            throw new JwtException("Token has been revoked");
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a token, for storing or keying it without keeping the token itself.
+     */
+    public static String digest(String token) {
+        try {
+            // MessageDigest is not thread-safe, and a fresh instance is cheap next to HMAC verification
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Verified(UserPrincipal principal, String tokenId, long expiresAtMillis) {}
 }
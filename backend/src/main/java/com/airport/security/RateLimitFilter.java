@@ -0,0 +1,257 @@
+package com.airport.security;
+
+import com.airport.util.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate Limit Filter - token buckets in front of the expensive endpoints.
+ *
+ * Runs ahead of the JWT filter, so throttled requests cost no bcrypt check, no
+ * booking and no database work. Each rule has its own RateLimiter and key:
+ * login is limited per client IP and per email (read from the request body,
+ * which is then replayed to the controller), registration per IP, and booking
+ * writes per user id from the token, or per IP without a valid token. A limit
+ * left empty disables its rule. Throttled requests get 429 with Retry-After.
+ *
+ * The client IP is the remote address; behind a proxy, set
+ * server.forward-headers-strategy so it is the real client.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY_BYTES = 8192;
+    private static final byte[] THROTTLED_BODY =
+            "{\"message\":\"Too many requests, please retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final JwtTokenProvider tokenProvider;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<Rule> rules = new ArrayList<>();
+
+    @Autowired
+    public RateLimitFilter(JwtTokenProvider tokenProvider,
+                           ObjectMapper objectMapper,
+                           @Value("${airport.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${airport.rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${airport.rate-limit.login-per-ip:30/m}") String loginPerIp,
+                           @Value("${airport.rate-limit.login-per-email:10/m}") String loginPerEmail,
+                           @Value("${airport.rate-limit.register-per-ip:10/m}") String registerPerIp,
+                           @Value("${airport.rate-limit.booking-per-user:30/m}") String bookingPerUser) {
+        this.tokenProvider = tokenProvider;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+
+        RequestMatcher login = new AntPathRequestMatcher("/api/auth/login", HttpMethod.POST.name());
+        RequestMatcher register = new OrRequestMatcher(
+                new AntPathRequestMatcher("/api/auth/register", HttpMethod.POST.name()),
+                new AntPathRequestMatcher("/api/auth/register/**", HttpMethod.POST.name()));
+        RequestMatcher bookingWrites = new OrRequestMatcher(
+                new AntPathRequestMatcher("/api/bookings/**", HttpMethod.POST.name()),
+                new AntPathRequestMatcher("/api/bookings/**", HttpMethod.DELETE.name()));
+
+        addRule("login-per-ip", login, Key.IP, loginPerIp, maxKeys);
+        addRule("login-per-email", login, Key.EMAIL, loginPerEmail, maxKeys);
+        addRule("register-per-ip", register, Key.IP, registerPerIp, maxKeys);
+        addRule("booking-per-user", bookingWrites, Key.USER_OR_IP, bookingPerUser, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        for (Rule rule : rules) {
+            if (rule.matcher().matches(request)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        HttpServletRequest current = request;
+        String email = null;
+        for (Rule rule : rules) {
+            if (!rule.matcher().matches(current)) {
+                continue;
+            }
+            String key = switch (rule.key()) {
+                case IP -> current.getRemoteAddr();
+                case USER_OR_IP -> userOrIp(current);
+                case EMAIL -> {
+                    if (email == null) {
+                        BufferedBodyRequest buffered = new BufferedBodyRequest(current);
+                        current = buffered;
+                        email = emailOf(buffered.prefix);
+                    }
+                    yield email;
+                }
+            };
+            if (key.isEmpty()) {
+                continue;
+            }
+            long waitNanos = rule.limiter().tryAcquire(key);
+            if (waitNanos > 0) {
+                throttle(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(current, response);
+    }
+
+    /**
+     * Per-rule limits and counters.
+     */
+    public Map<String, RateLimiter.Stats> getStats() {
+        Map<String, RateLimiter.Stats> stats = new LinkedHashMap<>();
+        rules.forEach(rule -> stats.put(rule.name(), rule.limiter().stats()));
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${airport.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        rules.forEach(rule -> rule.limiter().evictIdle());
+    }
+
+    private void addRule(String name, RequestMatcher matcher, Key key, String limit, int maxKeys) {
+        if (StringUtils.hasText(limit)) {
+            rules.add(new Rule(name, matcher, key, RateLimiter.parse(limit, maxKeys)));
+        }
+    }
+
+    private String userOrIp(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            try {
+                // Served from the verified-token cache after the first request
+                return "user:" + tokenProvider.getPrincipalFromToken(header.substring(7)).id();
+            } catch (JwtException | IllegalArgumentException e) {
+                // Rejected later by the JWT filter; limit it by address meanwhile
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private String emailOf(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : "";
+        } catch (IOException e) {
+            // Not JSON; the controller reports it
+            return "";
+        }
+    }
+
+    private void throttle(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(THROTTLED_BODY.length);
+        response.getOutputStream().write(THROTTLED_BODY);
+    }
+
+    private enum Key { IP, EMAIL, USER_OR_IP }
+
+    private record Rule(String name, RequestMatcher matcher, Key key, RateLimiter limiter) {}
+
+    /**
+     * Reads the first MAX_BODY_BYTES of the body up front and replays them,
+     * followed by anything left, to whoever reads the request next.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        final byte[] prefix;
+        private final InputStream replay;
+
+        BufferedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            InputStream original = request.getInputStream();
+            this.prefix = original.readNBytes(MAX_BODY_BYTES);
+            this.replay = new SequenceInputStream(new ByteArrayInputStream(prefix), original);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = replay.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = replay.read(buffer, offset, length);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Blocking reads only");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.airport.security;
+
+import com.airport.model.User;
+
+/**
+ * Authenticated user as carried by the JWT - built from the token's claims
+ * without a database lookup. Load the User through UserCacheService when
+ * account details (miles, membership, profile) are needed.
+ */
+public record UserPrincipal(Long id, String email, User.Role role, User.CustomerType customerType) {}
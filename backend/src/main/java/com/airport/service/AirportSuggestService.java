@@ -0,0 +1,80 @@
+package com.airport.service;
+
+import com.airport.service.CityIndex.Match;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Airport suggest service - city autocomplete for search boxes.
+ *
+ * Suggestions come from the CityIndex in the route index snapshot, so they follow
+ * flight changes without a query and readers never wait for a rebuild. Cities
+ * starting with the query come first, then cities with a word starting with it.
+ * When that leaves room, queries of three or more characters also match cities
+ * within one edit (two from six characters), so "huoston" still finds Houston.
+ * Within each group, busier cities come first.
+ */
+@Service
+public class AirportSuggestService {
+
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final RouteIndexService routeIndexService;
+    private final int maxResults;
+
+    @Autowired
+    public AirportSuggestService(RouteIndexService routeIndexService,
+                                 @Value("${airport.suggest.max-results:20}") int maxResults) {
+        this.routeIndexService = routeIndexService;
+        this.maxResults = maxResults;
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        if (limit < 1 || limit > maxResults) {
+            throw new RuntimeException("Limit must be between 1 and " + maxResults);
+        }
+        String q = WHITESPACE.matcher(RouteIndexService.normalize(query)).replaceAll(" ");
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new RuntimeException("Query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        CityIndex index = routeIndexService.cities();
+        List<Match> matches = index.prefixMatches(q);
+        if (matches.size() < limit && q.length() >= 3) {
+            Set<CityIndex.City> found = new HashSet<>();
+            matches.forEach(match -> found.add(match.city()));
+            for (Match match : index.fuzzyMatches(q, q.length() >= 6 ? 2 : 1)) {
+                if (!found.contains(match.city())) {
+                    matches.add(match);
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::rank)
+                .thenComparingInt(match -> -(match.city().departures() + match.city().arrivals()))
+                .thenComparing(match -> match.city().name()));
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Match match : matches.subList(0, Math.min(limit, matches.size()))) {
+            CityIndex.City city = match.city();
+            suggestions.add(new Suggestion(city.name(), city.departures(), city.arrivals(), match.rank() >= 2));
+        }
+        return suggestions;
+    }
+
+    /**
+     * A suggested city; corrected is true when it only matched with typos.
+     */
+    public record Suggestion(String city, int departures, int arrivals, boolean corrected) {}
+}
@@ -1,73 +1,168 @@
 package com.airport.service;
 
+import com.airport.model.RefreshToken;
 import com.airport.model.User;
+import com.airport.repository.RefreshTokenRepository;
 import com.airport.repository.UserRepository;
 import com.airport.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Authentication service - handles user registration and login.
+ *
+ * Passwords are hashed and checked on the PasswordHashingService pool. Login and
+ * registration run outside a transaction so no database connection is held while
+ * they wait for it; each repository call runs in its own.
+ *
+ * A login returns a short-lived access token and a refresh token. Refreshing
+ * trades the refresh token for a new pair and marks it used; a used token that
+ * comes back was copied, so its whole family is revoked and the user has to sign
+ * in again. Logout revokes the access token and the refresh token's family.
  */
 @Service
 @Transactional
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserCacheService userCacheService;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final BookingStatsService bookingStatsService;
+    private final long refreshExpirationDays;
 
     @Autowired
     public AuthService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder,
-                       JwtTokenProvider jwtTokenProvider) {
+                       PasswordHashingService passwordHashingService,
+                       JwtTokenProvider jwtTokenProvider,
+                       UserCacheService userCacheService,
+                       RefreshTokenRepository refreshTokenRepository,
+                       TokenRevocationService tokenRevocationService,
+                       BookingStatsService bookingStatsService,
+                       @Value("${jwt.refresh-expiration-days:30}") long refreshExpirationDays) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userCacheService = userCacheService;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.bookingStatsService = bookingStatsService;
+        this.refreshExpirationDays = refreshExpirationDays;
     }
 
     /**
      * Register a new user.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User register(String name, String email, String password, String phoneNumber) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
 
-        User user = new User(name, email, passwordEncoder.encode(password), phoneNumber);
-        return userRepository.save(user);
+        User user = userRepository.save(new User(name, email, passwordHashingService.hash(password), phoneNumber));
+        bookingStatsService.createFor(user.getId());
+        return user;
     }
 
     /**
      * Register a new frequent flyer.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerFrequentFlyer(String name, String email, String password, 
                                        String phoneNumber, int initialMiles) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
 
-        User user = new User(name, email, passwordEncoder.encode(password), phoneNumber, initialMiles);
-        return userRepository.save(user);
+        User user = userRepository.save(
+                new User(name, email, passwordHashingService.hash(password), phoneNumber, initialMiles));
+        bookingStatsService.createFor(user.getId());
+        return user;
     }
 
     /**
-     * Authenticate user and return JWT token.
+     * Authenticate user and return an access and a refresh token. A password hashed with a lower
+     * cost than the one now configured is rehashed on a successful login.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(String email, String password) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid email or password");
         }
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                String rehashed = passwordHashingService.hash(password);
+                userRepository.updatePassword(user.getId(), rehashed);
+                user.setPassword(rehashed);
+                userCacheService.evict(user.getId());
+            } catch (PasswordHashingService.PasswordHashingBusyException e) {
+                // The password was correct; rehash on a later login instead of failing this one
+            }
+        }
+
+        return issueTokens(user, UUID.randomUUID().toString());
+    }
 
-        String token = jwtTokenProvider.generateToken(user);
-        return new AuthResponse(token, user);
+    /**
+     * Trade a refresh token for a new access and refresh token. The new access
+     * token carries the user's current role and customer type.
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public AuthResponse refresh(String refreshToken) {
+        // Not rolled back on failure, so a family revoked for reuse stays revoked
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(JwtTokenProvider.digest(refreshToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        if (stored.isExpired()) {
+            throw new RuntimeException("Refresh token expired, please sign in again");
+        }
+        if (refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            throw new RuntimeException("Refresh token already used, please sign in again");
+        }
+        return issueTokens(stored.getUser(), stored.getFamilyId());
+    }
+
+    /**
+     * Revoke the access token and, if given, the refresh token's whole family.
+     * Tokens that are invalid or already expired are ignored.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtTokenProvider.parseClaims(accessToken);
+                if (claims.getId() != null && claims.getExpiration() != null) {
+                    tokenRevocationService.revoke(claims.getId(),
+                            LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Nothing to revoke
+            }
+        }
+        if (refreshToken != null) {
+            refreshTokenRepository.findByTokenHash(JwtTokenProvider.digest(refreshToken))
+                    .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${airport.token-revocation.purge-interval-ms:600000}")
+    public void purgeExpiredRefreshTokens() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
     }
 
     /**
@@ -93,6 +188,7 @@ public class AuthService {
 
         user.setName(name);
         user.setPhoneNumber(phoneNumber);
+        userCacheService.evictAfterCommit(userId);
         return userRepository.save(user);
     }
 
@@ -104,11 +200,19 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.upgradeToFrequentFlyer();
+        userCacheService.evictAfterCommit(userId);
         return userRepository.save(user);
     }
 
+    private AuthResponse issueTokens(User user, String familyId) {
+        String refreshToken = jwtTokenProvider.generateRefreshToken();
+        refreshTokenRepository.save(new RefreshToken(JwtTokenProvider.digest(refreshToken), familyId, user,
+                LocalDateTime.now().plusDays(refreshExpirationDays)));
+        return new AuthResponse(jwtTokenProvider.generateToken(user), refreshToken, user);
+    }
+
     /**
      * Authentication response DTO.
      */
-    public record AuthResponse(String token, User user) {}
+    public record AuthResponse(String token, String refreshToken, User user) {}
 }
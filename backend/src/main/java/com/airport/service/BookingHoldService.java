@@ -0,0 +1,146 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.util.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Booking hold service - seat holds that expire unless confirmed.
+ *
+ * A hold is a PENDING booking that already owns its seat. Each hold gets one
+ * entry on a hashed timing wheel; when it fires, the seat is released on a small
+ * worker pool. Confirming a hold cancels its wheel entry. Holds still pending at
+ * startup are put back on the wheel with their remaining time.
+ */
+@Service
+public class BookingHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingHoldService.class);
+
+    private final BookingService bookingService;
+    private final BookingPartitionExecutor partitionExecutor;
+    private final Duration defaultHoldTime;
+    private final Duration maxHoldTime;
+    private final HashedTimingWheel wheel;
+    private final ExecutorService expiryExecutor;
+    private final ConcurrentHashMap<Long, HashedTimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingHoldService(BookingService bookingService,
+                              BookingPartitionExecutor partitionExecutor,
+                              @Value("${airport.holds.default-minutes:10}") long defaultMinutes,
+                              @Value("${airport.holds.max-minutes:30}") long maxMinutes,
+                              @Value("${airport.holds.tick-ms:1000}") long tickMillis,
+                              @Value("${airport.holds.wheel-size:512}") int wheelSize,
+                              @Value("${airport.holds.expiry-threads:2}") int expiryThreads) {
+        this.bookingService = bookingService;
+        this.partitionExecutor = partitionExecutor;
+        this.defaultHoldTime = Duration.ofMinutes(defaultMinutes);
+        this.maxHoldTime = Duration.ofMinutes(maxMinutes);
+        this.wheel = new HashedTimingWheel("hold-expiry-wheel", Duration.ofMillis(tickMillis), wheelSize);
+        this.expiryExecutor = Executors.newFixedThreadPool(expiryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hold a seat for the given number of minutes (default if null, up to the configured maximum).
+     */
+    public Booking createHold(User user, Long flightId, Passenger passenger, String seatNumber,
+                              Integer holdMinutes) {
+        Duration holdTime = holdMinutes != null ? Duration.ofMinutes(holdMinutes) : defaultHoldTime;
+        if (holdTime.isNegative() || holdTime.isZero() || holdTime.compareTo(maxHoldTime) > 0) {
+            throw new RuntimeException("Hold time must be between 1 and " + maxHoldTime.toMinutes() + " minutes");
+        }
+
+        Booking booking = partitionExecutor.execute(flightId,
+                () -> bookingService.createHold(user, flightId, passenger, seatNumber, holdTime));
+        schedule(booking.getId(), flightId, holdTime);
+        return booking;
+    }
+
+    /**
+     * Confirm a hold, turning it into a CONFIRMED booking.
+     */
+    public Booking confirmHold(Long bookingId, Long flightId) {
+        Booking booking = partitionExecutor.execute(flightId, () -> bookingService.confirmHold(bookingId));
+        HashedTimingWheel.Timeout timeout = timeouts.remove(bookingId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return booking;
+    }
+
+    /**
+     * Number of holds waiting to expire.
+     */
+    public int getActiveHolds() {
+        return wheel.size();
+    }
+
+    /**
+     * Re-arm holds left pending by a previous run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = 0;
+        for (Booking booking : bookingService.getPendingHolds()) {
+            LocalDateTime expiresAt = booking.getHoldExpiresAt() != null ? booking.getHoldExpiresAt() : now;
+            schedule(booking.getId(), booking.getFlight().getId(), Duration.between(now, expiresAt));
+            recovered++;
+        }
+        if (recovered > 0) {
+            log.info("Re-armed {} pending seat holds", recovered);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        expiryExecutor.shutdown();
+    }
+
+    private void schedule(Long bookingId, Long flightId, Duration delay) {
+        timeouts.put(bookingId, wheel.schedule(
+                () -> expiryExecutor.execute(() -> expire(bookingId, flightId)), delay));
+    }
+
+    private void expire(Long bookingId, Long flightId) {
+        timeouts.remove(bookingId);
+        try {
+            if (partitionExecutor.execute(flightId, () -> bookingService.expireHold(bookingId))) {
+                log.debug("Hold expired for booking {}", bookingId);
+                return;
+            }
+            // Fired ahead of the stored expiry (e.g. a tick early): wait out the rest
+            bookingService.getBookingById(bookingId)
+                    .filter(booking -> booking.getStatus() == Booking.BookingStatus.PENDING
+                            && booking.getHoldExpiresAt() != null)
+                    .ifPresent(booking -> schedule(bookingId, flightId,
+                            Duration.between(LocalDateTime.now(), booking.getHoldExpiresAt())));
+        } catch (BookingPartitionExecutor.PartitionBusyException e) {
+            // Turned away without running; try again once the partition has drained
+            schedule(bookingId, flightId, Duration.ofSeconds(e.getRetryAfterSeconds()));
+        } catch (RuntimeException e) {
+            log.error("Could not expire hold for booking {}", bookingId, e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.airport.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Booking partition executor - optional single-writer mode for seat changes.
+ *
+ * When enabled (airport.booking.partitions.enabled), every booking, hold and
+ * cancellation command is routed by flight id to one of a fixed set of
+ * single-threaded executors. All commands for a flight then run one at a time
+ * on the same thread, so its seat inventory and seat map never see contention,
+ * and in ledger mode a partition's seat changes reach the database together in
+ * the next write-behind batch. When disabled, commands run on the caller thread.
+ *
+ * Each partition queues at most airport.booking.partitions.queue-capacity
+ * commands. A command rejected by a full queue, or still queued when the timeout
+ * passes, never runs and is reported as busy, so the client may safely retry. A
+ * command that has started is always waited for, since it may already have
+ * committed and a retry would book twice.
+ */
+@Component
+public class BookingPartitionExecutor {
+
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final int retryAfterSeconds;
+    private final List<Partition> partitions = new ArrayList<>();
+
+    public BookingPartitionExecutor(@Value("${airport.booking.partitions.enabled:false}") boolean enabled,
+                                    @Value("${airport.booking.partitions.count:8}") int count,
+                                    @Value("${airport.booking.partitions.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${airport.booking.partitions.timeout-ms:10000}") long timeoutMillis,
+                                    @Value("${airport.booking.partitions.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        if (enabled) {
+            for (int i = 0; i < count; i++) {
+                partitions.add(new Partition(i, queueCapacity));
+            }
+        }
+    }
+
+    /**
+     * Run a command for a flight on its partition and wait for the result.
+     * Exceptions thrown by the command are rethrown to the caller. Throws
+     * PartitionBusyException, without running the command, if the partition's
+     * queue is full or the command did not start within the timeout.
+     */
+    public <T> T execute(Long flightId, Supplier<T> command) {
+        if (!enabled) {
+            return command.get();
+        }
+
+        Partition partition = partitions.get(partitionOf(flightId));
+        long enqueuedAt = System.nanoTime();
+        // Set once by whichever comes first: the partition starting the command or
+        // the caller giving up on it
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = partition.executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                partition.queueWaitNanos.add(System.nanoTime() - enqueuedAt);
+                try {
+                    return command.get();
+                } finally {
+                    partition.recordLatency(System.nanoTime() - enqueuedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            partition.rejected.increment();
+            throw new PartitionBusyException(retryAfterSeconds);
+        }
+
+        try {
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // A running task can still be cancelled, so only the flag tells
+                // whether the command has started
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                    partition.rejected.increment();
+                    throw new PartitionBusyException(retryAfterSeconds);
+                }
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Booking interrupted");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Per-partition queue depth and latency.
+     */
+    public List<PartitionStats> getStats() {
+        return partitions.stream().map(Partition::stats).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitions.forEach(partition -> partition.executor.shutdown());
+    }
+
+    private int partitionOf(Long flightId) {
+        // Spread sequential ids before taking the modulus
+        long h = flightId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) partitions.size());
+    }
+
+    private static final class Partition {
+
+        private final int index;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Partition(int index, int queueCapacity) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "booking-partition-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        void recordLatency(long nanos) {
+            completed.increment();
+            totalLatencyNanos.add(nanos);
+            maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        PartitionStats stats() {
+            long count = completed.sum();
+            return new PartitionStats(
+                    index,
+                    executor.getQueue().size(),
+                    count,
+                    rejected.sum(),
+                    count > 0 ? totalLatencyNanos.sum() / count / 1_000 : 0,
+                    count > 0 ? queueWaitNanos.sum() / count / 1_000 : 0,
+                    maxLatencyNanos.get() / 1_000
+            );
+        }
+    }
+
+    /**
+     * Thrown when a command was not run because its partition is saturated; the
+     * request should be retried later.
+     */
+    public static class PartitionBusyException extends RuntimeException {
+
+        private final int retryAfterSeconds;
+
+        PartitionBusyException(int retryAfterSeconds) {
+            super("Booking service is busy, please retry");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Partition metrics; latencies are in microseconds and include queue wait.
+     * Rejected counts commands turned away as busy without running.
+     */
+    public record PartitionStats(
+            int partition,
+            int queueDepth,
+            long completed,
+            long rejected,
+            long avgLatencyMicros,
+            long avgQueueWaitMicros,
+            long maxLatencyMicros
+    ) {}
+}
@@ -4,13 +4,23 @@ import com.airport.model.Booking;
 import com.airport.model.Flight;
 import com.airport.model.Passenger;
 import com.airport.model.User;
+import com.airport.model.UserBookingStats;
 import com.airport.repository.BookingRepository;
 import com.airport.repository.FlightRepository;
 import com.airport.repository.PassengerRepository;
+import com.airport.repository.UserRepository;
+import com.airport.util.BookingReferenceGenerator;
+import com.airport.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,14 +35,47 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final FlightRepository flightRepository;
     private final PassengerRepository passengerRepository;
+    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final BookingStatsService bookingStatsService;
+    private final RouteAnalyticsService routeAnalyticsService;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapService seatMapService;
+    private final BookingReferenceGenerator referenceGenerator;
+
+    @Value("${airport.booking.group.max-size:9}")
+    private int maxGroupSize;
+
+    @Value("${airport.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${airport.pagination.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${airport.pagination.max-unpaged:1000}")
+    private int maxUnpaged;
 
     @Autowired
     public BookingService(BookingRepository bookingRepository,
                           FlightRepository flightRepository,
-                          PassengerRepository passengerRepository) {
+                          PassengerRepository passengerRepository,
+                          UserRepository userRepository,
+                          UserCacheService userCacheService,
+                          BookingStatsService bookingStatsService,
+                          RouteAnalyticsService routeAnalyticsService,
+                          SeatInventoryService seatInventoryService,
+                          SeatMapService seatMapService,
+                          @Value("${airport.node-id:0}") int nodeId) {
         this.bookingRepository = bookingRepository;
         this.flightRepository = flightRepository;
         this.passengerRepository = passengerRepository;
+        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.bookingStatsService = bookingStatsService;
+        this.routeAnalyticsService = routeAnalyticsService;
+        this.seatInventoryService = seatInventoryService;
+        this.seatMapService = seatMapService;
+        this.referenceGenerator = new BookingReferenceGenerator(nodeId);
     }
 
     public List<Booking> getAllBookings() {
@@ -47,8 +90,22 @@ public class BookingService {
         return bookingRepository.findByBookingReference(reference);
     }
 
+    /**
+     * All of a user's bookings in id order. Throws if there are more than the unpaged limit.
+     */
     public List<Booking> getBookingsByUser(Long userId) {
-        return bookingRepository.findByUserId(userId);
+        List<Booking> bookings = bookingRepository.findPageByUserAfter(userId, 0L, PageRequest.of(0, maxUnpaged + 1));
+        if (bookings.size() > maxUnpaged) {
+            throw new RuntimeException("More than " + maxUnpaged + " bookings; use the size and cursor parameters");
+        }
+        return bookings;
+    }
+
+    public KeysetPage<Booking> getBookingsPage(Long userId, String cursor, Integer size) {
+        int pageSize = KeysetPage.pageSize(size, defaultPageSize, maxPageSize);
+        long afterId = KeysetPage.decodeCursor("bookings", cursor);
+        List<Booking> rows = bookingRepository.findPageByUserAfter(userId, afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of("bookings", rows, pageSize, Booking::getId);
     }
 
     public List<Booking> getActiveBookingsByUser(Long userId) {
@@ -57,58 +114,171 @@ public class BookingService {
 
     /**
      * Create a new booking - core booking logic.
+     * A blank seat number assigns a seat from the passenger's seat preference.
      */
     public Booking createBooking(User user, Long flightId, Passenger passenger, String seatNumber) {
+        Booking booking = reserveSeat(user, flightId, passenger, seatNumber);
+        booking.confirm();
+        addMiles(user);
+        booking = insert(List.of(booking)).get(0);
+        bookingStatsService.recordBooked(user.getId(), 1, 1, booking.getTotalPrice());
+        routeAnalyticsService.recordBooked(List.of(booking));
+        return booking;
+    }
+
+    /**
+     * Book several passengers on one flight in a single transaction, all or none.
+     * Seats are reserved with one inventory update and passengers and bookings are
+     * saved with batched inserts. Members share the first booking's reference with
+     * a sequence suffix.
+     */
+    public List<Booking> createGroupBooking(User user, Long flightId, List<GroupMember> members) {
+        if (members.isEmpty()) {
+            throw new RuntimeException("At least one passenger is required");
+        }
+        if (members.size() > maxGroupSize) {
+            throw new RuntimeException("A group booking can have at most " + maxGroupSize + " passengers");
+        }
+
+        if (!seatInventoryService.tryReserve(flightId, members.size())) {
+            if (seatInventoryService.getAvailableSeats(flightId) < 0) {
+                throw new RuntimeException("Flight not found");
+            }
+            throw new RuntimeException("Not enough seats on this flight for " + members.size() + " passengers");
+        }
+
         Flight flight = flightRepository.findById(flightId)
                 .orElseThrow(() -> new RuntimeException("Flight not found"));
 
-        if (!flight.hasAvailableSeats()) {
-            throw new RuntimeException("No available seats on this flight");
+        List<Passenger> passengers = new ArrayList<>(members.size());
+        List<String> seats = new ArrayList<>(members.size());
+        for (GroupMember member : members) {
+            Passenger passenger = member.passenger();
+            if (passenger.getUser() == null) {
+                passenger.setUser(user);
+            }
+            passengers.add(passenger);
+            seats.add(seatMapService.claimOrAssign(flightId, member.seatNumber(), passenger.getSeatPreference()));
         }
+        passengers = passengerRepository.saveAll(passengers);
 
-        // Associate passenger with user if not already
-        if (passenger.getUser() == null) {
-            passenger.setUser(user);
+        List<Booking> bookings = new ArrayList<>(members.size());
+        for (int i = 0; i < passengers.size(); i++) {
+            Booking booking = new Booking(user, flight, passengers.get(i), seats.get(i));
+            booking.confirm();
+            booking.setBookingReference(i == 0
+                    ? referenceGenerator.next()
+                    : bookings.get(0).getBookingReference() + "-" + (i + 1));
+            bookings.add(booking);
         }
-        passenger = passengerRepository.save(passenger);
 
-        // Create booking
-        Booking booking = new Booking(user, flight, passenger, seatNumber);
-        
-        // Confirm booking (reserves seat)
-        if (!booking.confirm()) {
-            throw new RuntimeException("Failed to confirm booking - no seats available");
+        // Miles are earned once by the booking user, not per passenger
+        addMiles(user);
+
+        bookings = insert(bookings);
+        bookingStatsService.recordBooked(user.getId(), bookings.size(), bookings.size(),
+                bookings.stream().mapToDouble(Booking::getTotalPrice).sum());
+        routeAnalyticsService.recordBooked(bookings);
+        return bookings;
+    }
+
+    /**
+     * Hold a seat as a PENDING booking that is released unless confirmed in time.
+     */
+    public Booking createHold(User user, Long flightId, Passenger passenger, String seatNumber,
+                              Duration holdTime) {
+        Booking booking = reserveSeat(user, flightId, passenger, seatNumber);
+        booking.hold(LocalDateTime.now().plus(holdTime));
+        booking = insert(List.of(booking)).get(0);
+        bookingStatsService.recordBooked(user.getId(), 1, 0, booking.getTotalPrice());
+        routeAnalyticsService.recordBooked(List.of(booking));
+        return booking;
+    }
+
+    /**
+     * Confirm a held booking. The status change is one conditional UPDATE, so a hold
+     * cannot be both confirmed and expired or cancelled by concurrent callers.
+     */
+    public Booking confirmHold(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+        if (bookingRepository.confirmHold(bookingId, LocalDateTime.now(),
+                Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED) == 0) {
+            Booking.BookingStatus status = bookingRepository.findStatusById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+            throw new RuntimeException(status == Booking.BookingStatus.PENDING
+                    ? "Hold has expired"
+                    : "Booking is not on hold");
         }
 
-        // Save flight with updated seat count
-        flightRepository.save(flight);
+        // The row is already CONFIRMED; bring the loaded copy in line for the response
+        booking.confirm();
+        addMiles(booking.getUser());
+        bookingStatsService.recordConfirmed(booking.getUser().getId());
+        return booking;
+    }
 
-        // Add miles for frequent flyers
-        if (user.getCustomerType() == User.CustomerType.FREQUENT_FLYER) {
-            // Estimate miles based on a simple calculation (could be enhanced)
-            user.addMiles(500);
+    /**
+     * Release the seat of a hold that was not confirmed in time.
+     * Returns false if the booking is no longer on hold or not yet due.
+     */
+    public boolean expireHold(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId).orElse(null);
+        if (booking == null || !booking.isHoldExpired()) {
+            return false;
         }
+        // Checked again in the statement: a confirm or cancel may have won meanwhile
+        if (bookingRepository.expireHold(bookingId, LocalDateTime.now(),
+                Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED) == 0) {
+            return false;
+        }
+
+        booking.cancel();
+        seatInventoryService.release(booking.getFlight().getId());
+        seatMapService.release(booking.getFlight().getId(), booking.getSeatNumber());
+        bookingStatsService.recordCancelled(booking.getUser().getId(), Booking.BookingStatus.PENDING,
+                booking.getTotalPrice());
+        routeAnalyticsService.recordCancelled(booking);
+        return true;
+    }
 
-        return bookingRepository.save(booking);
+    /**
+     * Get bookings currently on hold.
+     */
+    public List<Booking> getPendingHolds() {
+        return bookingRepository.findByStatus(Booking.BookingStatus.PENDING);
     }
 
     /**
-     * Cancel an existing booking.
+     * Cancel an existing booking. The status change is one conditional UPDATE, so of
+     * two concurrent cancels only the one that makes it releases the seat.
      */
     public Booking cancelBooking(Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
+        Booking.BookingStatus previous = booking.getStatus();
+        // A hold confirmed meanwhile is retried as CONFIRMED; statuses only move forward
+        while (Booking.SEAT_HOLDING_STATUSES.contains(previous)
+                && bookingRepository.changeStatus(bookingId, previous, Booking.BookingStatus.CANCELLED) == 0) {
+            previous = bookingRepository.findStatusById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+        }
+        if (previous == Booking.BookingStatus.CANCELLED) {
             throw new RuntimeException("Booking is already cancelled");
         }
+        if (!Booking.SEAT_HOLDING_STATUSES.contains(previous)) {
+            return booking;
+        }
 
+        // The row is already CANCELLED; bring the loaded copy in line for the response
         booking.cancel();
-        
-        // Save flight with updated seat count
-        flightRepository.save(booking.getFlight());
-
-        return bookingRepository.save(booking);
+        seatInventoryService.release(booking.getFlight().getId());
+        seatMapService.release(booking.getFlight().getId(), booking.getSeatNumber());
+        bookingStatsService.recordCancelled(booking.getUser().getId(), previous, booking.getTotalPrice());
+        routeAnalyticsService.recordCancelled(booking);
+        return booking;
     }
 
     /**
@@ -122,26 +292,83 @@ public class BookingService {
     }
 
     /**
-     * Get booking statistics for a user.
+     * Get booking statistics for a user - one row read, however many bookings they have.
      */
     public BookingStats getBookingStats(Long userId) {
-        List<Booking> userBookings = bookingRepository.findByUserId(userId);
-        
-        long totalBookings = userBookings.size();
-        long confirmedBookings = userBookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                .count();
-        long cancelledBookings = userBookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CANCELLED)
-                .count();
-        double totalSpent = userBookings.stream()
-                .filter(b -> b.getStatus() != Booking.BookingStatus.CANCELLED)
-                .mapToDouble(Booking::getTotalPrice)
-                .sum();
-
-        return new BookingStats(totalBookings, confirmedBookings, cancelledBookings, totalSpent);
+        UserBookingStats stats = bookingStatsService.getStats(userId);
+        return new BookingStats(
+                stats.getTotalBookings(),
+                stats.getConfirmedBookings(),
+                stats.getCancelledBookings(),
+                stats.getTotalSpent()
+        );
     }
 
+    /**
+     * Reserve a seat and build an unsaved booking for it.
+     */
+    private Booking reserveSeat(User user, Long flightId, Passenger passenger, String seatNumber) {
+        // Reserve the seat first - sold-out flights are rejected without a row read
+        if (!seatInventoryService.tryReserve(flightId)) {
+            if (seatInventoryService.getAvailableSeats(flightId) < 0) {
+                throw new RuntimeException("Flight not found");
+            }
+            throw new RuntimeException("No available seats on this flight");
+        }
+
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new RuntimeException("Flight not found"));
+
+        seatNumber = seatMapService.claimOrAssign(flightId, seatNumber, passenger.getSeatPreference());
+
+        // Associate passenger with user if not already
+        if (passenger.getUser() == null) {
+            passenger.setUser(user);
+        }
+        passenger = passengerRepository.save(passenger);
+
+        Booking booking = new Booking(user, flight, passenger, seatNumber);
+        booking.setBookingReference(referenceGenerator.next());
+        return booking;
+    }
+
+    /**
+     * Insert new bookings of one flight at once. The seat map only knows this
+     * instance's seats, so a seat sold by another instance is caught here by the
+     * held seat key and refused.
+     */
+    private List<Booking> insert(List<Booking> bookings) {
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!cause.toLowerCase().contains(Booking.HELD_SEAT_KEY)) {
+                throw e;
+            }
+            seatMapService.seatTakenElsewhere(bookings.get(0).getFlight().getId());
+            throw new RuntimeException(bookings.size() == 1
+                    ? "Seat " + bookings.get(0).getSeatNumber() + " is already taken"
+                    : "A requested seat is already taken");
+        }
+        return saved;
+    }
+
+    private void addMiles(User user) {
+        // Add miles for frequent flyers
+        if (user.getCustomerType() == User.CustomerType.FREQUENT_FLYER) {
+            // The caller's user is a detached, shared copy - update the managed one
+            // Estimate miles based on a simple calculation (could be enhanced)
+            userRepository.findById(user.getId()).ifPresent(managed -> managed.addMiles(500));
+            userCacheService.evictAfterCommit(user.getId());
+        }
+    }
+
+    /**
+     * One passenger of a group booking; a blank seat number assigns by preference.
+     */
+    public record GroupMember(Passenger passenger, String seatNumber) {}
+
     /**
      * Simple DTO for booking statistics.
      */
@@ -0,0 +1,142 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.UserBookingStats;
+import com.airport.repository.UserBookingStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Booking stats service - per-user booking totals maintained incrementally.
+ *
+ * Every booking change adds its delta to the user's row with one UPDATE in the
+ * booking's own transaction, so the totals commit or roll back with it and
+ * concurrent bookings by the same user cannot lose an increment. Rows are created
+ * at registration; rows missing for older users are built once from a grouped
+ * aggregate over their bookings, at startup or on first use.
+ *
+ * Building a missing row is an insert-if-absent. When two transactions race to
+ * build the same row, the loser's insert fails on the primary key; only that
+ * statement is rolled back, and the loser then adds its change to the winner's
+ * row. The winner's aggregate cannot include the loser's uncommitted booking, so
+ * nothing is counted twice.
+ */
+@Service
+@Transactional
+public class BookingStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingStatsService.class);
+
+    // Totals from the bookings table for users without a row, optionally one user
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO user_booking_stats (user_id, total_bookings, confirmed_bookings, " +
+            "cancelled_bookings, total_spent) " +
+            "SELECT u.id, COUNT(b.id), " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CONFIRMED' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status <> 'CANCELLED' THEN b.total_price ELSE 0 END), 0) " +
+            "FROM users u LEFT JOIN bookings b ON b.user_id = u.id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_booking_stats s WHERE s.user_id = u.id)";
+
+    private final UserBookingStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public BookingStatsService(UserBookingStatsRepository statsRepository,
+                               JdbcTemplate jdbcTemplate,
+                               EntityManager entityManager) {
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Start a new user's totals at zero.
+     */
+    public void createFor(Long userId) {
+        statsRepository.save(new UserBookingStats(userId, 0, 0, 0, 0));
+    }
+
+    /**
+     * New bookings; confirmed is how many of them are CONFIRMED rather than held.
+     */
+    public void recordBooked(Long userId, int count, int confirmed, double price) {
+        apply(userId, count, confirmed, 0, price);
+    }
+
+    /**
+     * A hold was confirmed.
+     */
+    public void recordConfirmed(Long userId) {
+        apply(userId, 0, 1, 0, 0);
+    }
+
+    /**
+     * A booking was cancelled or its hold expired; previous is its status before.
+     */
+    public void recordCancelled(Long userId, Booking.BookingStatus previous, double price) {
+        apply(userId, 0, previous == Booking.BookingStatus.CONFIRMED ? -1 : 0, 1, -price);
+    }
+
+    public UserBookingStats getStats(Long userId) {
+        Optional<UserBookingStats> stats = statsRepository.findById(userId);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        insertMissing(userId);
+        return statsRepository.findById(userId)
+                .orElseGet(() -> new UserBookingStats(userId, 0, 0, 0, 0));
+    }
+
+    /**
+     * Build the rows of users that have none, e.g. after upgrading an existing
+     * database. Runs once the data initializer has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        int built = insertMissing(null);
+        if (built > 0) {
+            log.info("Built booking stats for {} users", built);
+        }
+    }
+
+    private void apply(Long userId, long total, long confirmed, long cancelled, double spent) {
+        if (statsRepository.add(userId, total, confirmed, cancelled, spent) > 0) {
+            return;
+        }
+        // No row yet: build it from the bookings, which include this change once flushed
+        if (insertMissing(userId) == 0) {
+            // Another transaction built it first, without this change; add it there
+            statsRepository.add(userId, total, confirmed, cancelled, spent);
+        }
+    }
+
+    /**
+     * Insert the row of one user (or, with null, of every user) that has none.
+     * Returns the number of rows inserted; 0 if a concurrent transaction inserted
+     * the row first. Bypasses the repository so a key conflict only fails the
+     * statement, not the caller's transaction.
+     */
+    private int insertMissing(Long userId) {
+        // Native SQL does not flush, and the aggregate must see this transaction's bookings
+        entityManager.flush();
+        try {
+            return userId == null
+                    ? jdbcTemplate.update(INSERT_MISSING_SQL + " GROUP BY u.id")
+                    : jdbcTemplate.update(INSERT_MISSING_SQL + " AND u.id = ? GROUP BY u.id", userId);
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+}
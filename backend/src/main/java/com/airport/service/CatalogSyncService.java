@@ -0,0 +1,146 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.repository.FlightRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Catalog sync service - reconciles this instance's in-memory flight views with
+ * the flights table.
+ *
+ * The route index, the flight cache and (in database mode) the seat inventory
+ * mirror are updated at once by this instance's own changes, but know nothing of
+ * flights created, edited, booked or deleted by other instances. Every
+ * airport.catalog.sync-interval-ms this service reads the id and revision of
+ * every flight - revision is raised by every statement that changes the row - and
+ * loads only the rows whose revision moved since the last pass. Their seat counts
+ * are offered to the seat inventory, which keeps only rows newer than its own;
+ * flights that are new, edited or gone are re-indexed and evicted from the
+ * flight cache, and seat maps follow capacity changes. Any change found also
+ * advances the catalog version. With a single instance a pass finds only rows it
+ * changed itself and costs one small query.
+ */
+@Service
+public class CatalogSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSyncService.class);
+
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final RouteIndexService routeIndexService;
+    private final FlightCacheService flightCacheService;
+    private final SeatMapService seatMapService;
+    private final CatalogVersion catalogVersion;
+
+    // Revisions start at 0, so this never matches a row
+    private static final Long UNSEEN = -1L;
+
+    // Revision of each flight as of the last pass; only the scheduler thread touches it
+    private final Map<Long, Long> revisions = new HashMap<>();
+
+    @Autowired
+    public CatalogSyncService(FlightRepository flightRepository,
+                              SeatInventoryService seatInventoryService,
+                              RouteIndexService routeIndexService,
+                              FlightCacheService flightCacheService,
+                              SeatMapService seatMapService,
+                              CatalogVersion catalogVersion) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.routeIndexService = routeIndexService;
+        this.flightCacheService = flightCacheService;
+        this.seatMapService = seatMapService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Scheduled(fixedDelayString = "${airport.catalog.sync-interval-ms:2000}")
+    public synchronized void sync() {
+        List<Long> changedIds = new ArrayList<>();
+        Set<Long> present = new HashSet<>();
+        for (Object[] row : flightRepository.findRevisions()) {
+            Long id = (Long) row[0];
+            Long revision = ((Number) row[1]).longValue();
+            present.add(id);
+            if (!revision.equals(revisions.put(id, revision))) {
+                changedIds.add(id);
+            }
+        }
+
+        List<Flight> edited = new ArrayList<>();
+        int seatChanges = 0;
+        for (Flight flight : flightRepository.findAllById(changedIds)) {
+            switch (seatInventoryService.refresh(flight)) {
+                case UPDATED -> seatChanges++;
+                // This instance is changing the flight; look at the row again next pass
+                case DEFERRED -> revisions.put(flight.getId(), UNSEEN);
+                default -> { }
+            }
+            Flight indexed = routeIndexService.indexed(flight.getId());
+            if (!sameSchedule(indexed, flight)) {
+                edited.add(flight);
+                if (indexed != null && indexed.getCapacity() != flight.getCapacity()
+                        && !seatMapService.resize(flight.getId(), flight.getCapacity())) {
+                    seatMapService.evict(flight.getId());
+                }
+                // An edit may have renamed the flight; drop both numbers
+                flightCacheService.evict(flight.getId(), flight.getFlightNumber(),
+                        indexed != null ? indexed.getFlightNumber() : null);
+            }
+        }
+
+        // Only flights seen by an earlier pass count as deleted; one just created
+        // here may be indexed before its row was visible to this pass
+        List<Long> removed = new ArrayList<>();
+        revisions.keySet().removeIf(id -> {
+            if (present.contains(id)) {
+                return false;
+            }
+            removed.add(id);
+            return true;
+        });
+        for (Long id : removed) {
+            Flight indexed = routeIndexService.indexed(id);
+            flightCacheService.evict(id, indexed != null ? indexed.getFlightNumber() : null);
+            seatInventoryService.remove(id);
+            seatMapService.evict(id);
+        }
+
+        // Rows may have changed under a catalog already served; never answer not modified for them
+        if (!changedIds.isEmpty() || !removed.isEmpty()) {
+            catalogVersion.advance();
+        }
+        if (!edited.isEmpty() || !removed.isEmpty()) {
+            routeIndexService.putAll(edited, removed);
+            log.debug("Catalog sync: {} flights re-indexed, {} removed", edited.size(), removed.size());
+        }
+        if (seatChanges > 0) {
+            log.debug("Catalog sync: {} seat counts refreshed", seatChanges);
+        }
+    }
+
+    /**
+     * Whether the indexed copy still matches the row in everything but seats.
+     */
+    private static boolean sameSchedule(Flight indexed, Flight row) {
+        return indexed != null
+                && Objects.equals(indexed.getFlightNumber(), row.getFlightNumber())
+                && Objects.equals(indexed.getOrigin(), row.getOrigin())
+                && Objects.equals(indexed.getDestination(), row.getDestination())
+                && Objects.equals(indexed.getDepartureTime(), row.getDepartureTime())
+                && Objects.equals(indexed.getArrivalTime(), row.getArrivalTime())
+                && indexed.getCapacity() == row.getCapacity()
+                && indexed.getBasePrice() == row.getBasePrice();
+    }
+}
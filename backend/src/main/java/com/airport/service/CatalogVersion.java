@@ -0,0 +1,39 @@
+package com.airport.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog version - a tag that changes whenever the flight catalog does.
+ *
+ * It is kept in memory, so a conditional GET costs no query. This instance
+ * advances it once its own changes have committed (in ledger mode, once seat
+ * counts are flushed to the flights table), and the catalog sync advances it when
+ * its revision poll finds rows changed by other instances, so their changes move
+ * the tag within one sync interval. Controllers read it before loading the catalog
+ * and use it as the ETag, so a response is never tagged with a newer version than
+ * its contents. Each process starts from a random epoch, so tags from different
+ * instances, or from before a restart, never match.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Strong ETag for the current version.
+     */
+    public String etag() {
+        return "\"" + epoch + "." + Long.toString(version.get(), 36) + "\"";
+    }
+
+    /**
+     * Move to a new version. Call once a change to the flights table is visible.
+     */
+    public void advance() {
+        version.incrementAndGet();
+    }
+}
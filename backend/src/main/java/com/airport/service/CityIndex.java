@@ -0,0 +1,220 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * City index - the distinct origins and destinations as a sorted-array prefix index.
+ *
+ * Every city is entered under its normalized name and under each later word of
+ * the name ("antonio" for San Antonio), and the keys are kept in one sorted array,
+ * so the cities starting with a prefix are a binary search plus a short scan. The
+ * index is immutable and rebuilt by RouteIndexService whenever the schedule changes.
+ */
+final class CityIndex {
+
+    private final String[] keys;
+    private final City[] cityOfKey;
+    private final boolean[] wholeName;
+
+    CityIndex(Collection<Flight> flights) {
+        Map<String, int[]> counts = new LinkedHashMap<>();
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            count(counts, names, flight.getOrigin(), 0);
+            count(counts, names, flight.getDestination(), 1);
+        }
+
+        List<Key> entries = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            City city = new City(names.get(key), key, count[0], count[1]);
+            entries.add(new Key(key, city, true));
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                if (i + 1 < key.length() && key.charAt(i + 1) != ' ') {
+                    entries.add(new Key(key.substring(i + 1), city, false));
+                }
+            }
+        });
+        entries.sort(Comparator.comparing(Key::key));
+
+        this.keys = new String[entries.size()];
+        this.cityOfKey = new City[entries.size()];
+        this.wholeName = new boolean[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key();
+            cityOfKey[i] = entries.get(i).city();
+            wholeName[i] = entries.get(i).wholeName();
+        }
+    }
+
+    /**
+     * Cities whose name, or a word in it, starts with the normalized prefix.
+     * Whole-name matches are reported before word matches.
+     */
+    List<Match> prefixMatches(String prefix) {
+        int from = Arrays.binarySearch(keys, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        Map<City, Match> matches = new LinkedHashMap<>();
+        for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+            Match match = new Match(cityOfKey[i], wholeName[i] ? 0 : 1);
+            matches.merge(match.city(), match, (a, b) -> a.rank() <= b.rank() ? a : b);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Cities whose name, or a word in it, starts with something within maxEdits
+     * edits (insert, delete, substitute or swap two neighbours) of the query.
+     * Ranked 2 + the number of edits, so they come after prefix matches.
+     *
+     * Keys are visited in sorted order, so neighbours share their first characters
+     * and most of the distance table carries over from one key to the next. Once
+     * a key's first characters are too far from the query for any longer prefix to
+     * match, every key starting with them is skipped with a binary search.
+     */
+    List<Match> fuzzyMatches(String query, int maxEdits) {
+        Map<City, Match> matches = new LinkedHashMap<>();
+        PrefixDistance distance = new PrefixDistance(query, maxEdits);
+        for (int i = 0; i < keys.length; i++) {
+            int edits = distance.next(keys[i]);
+            if (edits <= maxEdits) {
+                Match match = new Match(cityOfKey[i], 2 + edits);
+                matches.merge(match.city(), match, (a, b) -> a.rank() <= b.rank() ? a : b);
+            } else if (distance.prunedAt() >= 0) {
+                String dead = keys[i].substring(0, distance.prunedAt());
+                int end = Arrays.binarySearch(keys, i + 1, keys.length, dead + Character.MAX_VALUE);
+                i = (end < 0 ? -end - 1 : end) - 1;
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Fewest edits turning the query into some prefix of the key (optimal string
+     * alignment distance), or maxEdits + 1 once it is certain to exceed maxEdits.
+     */
+    static int prefixEdits(String query, String key, int maxEdits) {
+        return new PrefixDistance(query, maxEdits).next(key);
+    }
+
+    private static void count(Map<String, int[]> counts, Map<String, String> names, String city, int slot) {
+        String key = RouteIndexService.normalize(city);
+        if (key.isEmpty()) {
+            return;
+        }
+        counts.computeIfAbsent(key, k -> new int[2])[slot]++;
+        names.putIfAbsent(key, city.trim());
+    }
+
+    /**
+     * A served city; key is its normalized name.
+     */
+    record City(String name, String key, int departures, int arrivals) {}
+
+    /**
+     * A city matching a query; lower ranks are better.
+     */
+    record Match(City city, int rank) {}
+
+    private record Key(String key, City city, boolean wholeName) {}
+
+    /**
+     * Prefix edit distance from one query to a run of keys. The table has a row per
+     * key character, so a key sharing its first c characters with the previous key
+     * reuses c rows and only computes the rest.
+     */
+    private static final class PrefixDistance {
+
+        private final String query;
+        private final int maxEdits;
+        // Keys are compared up to this length; longer prefixes cannot be close enough
+        private final int maxRows;
+        // rows[j][i]: edits between the key's first j characters and the query's first i
+        private final int[][] rows;
+        // Lowest entry of each row, and fewest edits to the whole query by row j
+        private final int[] rowMin;
+        private final int[] best;
+        private String key = "";
+        private int computed;
+        private int prunedAt = -1;
+
+        PrefixDistance(String query, int maxEdits) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+            this.maxRows = query.length() + maxEdits;
+            this.rows = new int[maxRows + 1][query.length() + 1];
+            this.rowMin = new int[maxRows + 1];
+            this.best = new int[maxRows + 1];
+            for (int i = 0; i <= query.length(); i++) {
+                rows[0][i] = i;
+            }
+            best[0] = query.length();
+        }
+
+        /**
+         * Fewest edits for the next key, capped at maxEdits + 1.
+         */
+        int next(String next) {
+            int limit = Math.min(next.length(), maxRows);
+            int shared = Math.min(computed, limit);
+            int common = 0;
+            while (common < shared && key.charAt(common) == next.charAt(common)) {
+                common++;
+            }
+            key = next;
+            if (prunedAt >= 0 && prunedAt <= common) {
+                computed = common;
+                return Math.min(best[prunedAt], maxEdits + 1);
+            }
+            prunedAt = -1;
+            int j = common;
+            while (j < limit) {
+                fillRow(++j);
+                // Rows j - 1 and j this far off keep every later row above maxEdits
+                if (rowMin[j] > maxEdits && rowMin[j - 1] >= maxEdits) {
+                    prunedAt = j;
+                    break;
+                }
+            }
+            computed = j;
+            return Math.min(best[j], maxEdits + 1);
+        }
+
+        /**
+         * Length of the last key's prefix past which no longer prefix comes within
+         * maxEdits, or -1 if the key ended first.
+         */
+        int prunedAt() {
+            return prunedAt;
+        }
+
+        private void fillRow(int j) {
+            int n = query.length();
+            int[] row = rows[j];
+            int[] above = rows[j - 1];
+            char c = key.charAt(j - 1);
+            row[0] = j;
+            int min = j;
+            for (int i = 1; i <= n; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                int edits = Math.min(Math.min(above[i] + 1, row[i - 1] + 1), above[i - 1] + cost);
+                if (i > 1 && j > 1 && c == query.charAt(i - 2) && key.charAt(j - 2) == query.charAt(i - 1)) {
+                    edits = Math.min(edits, rows[j - 2][i - 2] + 1);
+                }
+                row[i] = edits;
+                min = Math.min(min, edits);
+            }
+            rowMin[j] = min;
+            best[j] = Math.min(best[j - 1], row[n]);
+        }
+    }
+}
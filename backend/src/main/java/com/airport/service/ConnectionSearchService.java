@@ -0,0 +1,205 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.service.RouteGraph.Leg;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Connection search service - direct, one-stop and two-stop itineraries.
+ *
+ * Searches walk the RouteGraph held by the route index: first legs come from the
+ * origin's departures, middle legs from the connecting city's departures starting
+ * at the first one that leaves after the minimum connection time, and final legs
+ * from the (city, destination) group the same way. Only legs with seats are used.
+ * The best itineraries are kept in a bounded heap, and partial itineraries that
+ * already cost more (or arrive later) than the worst kept one are pruned.
+ *
+ * Flights have no dates, so connections must depart the same day.
+ */
+@Service
+public class ConnectionSearchService {
+
+    public enum SortBy { PRICE, ARRIVAL }
+
+    private final RouteIndexService routeIndexService;
+    private final int minConnectionMinutes;
+    private final int maxResults;
+
+    @Autowired
+    public ConnectionSearchService(RouteIndexService routeIndexService,
+                                   @Value("${airport.connections.min-connection-minutes:45}") int minConnectionMinutes,
+                                   @Value("${airport.connections.max-results:50}") int maxResults) {
+        this.routeIndexService = routeIndexService;
+        this.minConnectionMinutes = minConnectionMinutes;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Best itineraries from origin to destination with at most maxStops stops.
+     */
+    public List<Itinerary> search(String origin, String destination, int maxStops, SortBy sortBy, int limit) {
+        if (maxStops < 0 || maxStops > 2) {
+            throw new RuntimeException("Stops must be between 0 and 2");
+        }
+        if (limit < 1 || limit > maxResults) {
+            throw new RuntimeException("Limit must be between 1 and " + maxResults);
+        }
+        String from = RouteIndexService.normalize(origin);
+        String to = RouteIndexService.normalize(destination);
+        if (from.isEmpty() || to.isEmpty() || from.equals(to)) {
+            throw new RuntimeException("Origin and destination must be two different cities");
+        }
+
+        Search search = new Search(routeIndexService.graph(), to, sortBy, limit);
+        for (Leg first : search.graph.departures(from)) {
+            if (!hasSeats(first)) {
+                continue;
+            }
+            if (first.destination().equals(to)) {
+                search.offer(first);
+            } else if (maxStops >= 1 && !first.destination().equals(from)) {
+                extend(search, from, first, maxStops);
+            }
+        }
+        return search.results();
+    }
+
+    private void extend(Search search, String from, Leg first, int maxStops) {
+        if (search.pruned(first.flight().getBasePrice(), first.arrives())) {
+            return;
+        }
+        int ready = first.arrives() + minConnectionMinutes;
+
+        // One stop: straight on to the destination
+        Leg[] finals = search.graph.legs(first.destination(), search.destination);
+        for (int i = RouteGraph.firstDepartingAt(finals, ready); i < finals.length; i++) {
+            if (hasSeats(finals[i])) {
+                search.offer(first, finals[i]);
+            }
+        }
+        if (maxStops < 2) {
+            return;
+        }
+
+        // Two stops: through a second city
+        Leg[] middles = search.graph.departures(first.destination());
+        for (int i = RouteGraph.firstDepartingAt(middles, ready); i < middles.length; i++) {
+            Leg middle = middles[i];
+            String via = middle.destination();
+            if (via.equals(search.destination) || via.equals(from) || via.equals(first.destination())) {
+                continue;
+            }
+            if (search.pruned(first.flight().getBasePrice() + middle.flight().getBasePrice(), middle.arrives())
+                    || !hasSeats(middle)) {
+                continue;
+            }
+            Leg[] lasts = search.graph.legs(via, search.destination);
+            int start = RouteGraph.firstDepartingAt(lasts, middle.arrives() + minConnectionMinutes);
+            for (int j = start; j < lasts.length; j++) {
+                if (hasSeats(lasts[j])) {
+                    search.offer(first, middle, lasts[j]);
+                }
+            }
+        }
+    }
+
+    private boolean hasSeats(Leg leg) {
+        return routeIndexService.availableSeats(leg.flight()) > 0;
+    }
+
+    /**
+     * State of one search: the graph snapshot it reads and the best itineraries so far.
+     */
+    private final class Search {
+
+        final RouteGraph graph;
+        final String destination;
+        final SortBy sortBy;
+        final int limit;
+        final Comparator<Candidate> order;
+        // Worst kept candidate at the head
+        final PriorityQueue<Candidate> best;
+
+        Search(RouteGraph graph, String destination, SortBy sortBy, int limit) {
+            this.graph = graph;
+            this.destination = destination;
+            this.sortBy = sortBy;
+            this.limit = limit;
+            Comparator<Candidate> byPrice = Comparator.comparingDouble(Candidate::price);
+            Comparator<Candidate> byArrival = Comparator.comparingInt(Candidate::arrives);
+            this.order = sortBy == SortBy.PRICE
+                    ? byPrice.thenComparing(byArrival).thenComparingInt(c -> c.legs.length)
+                    : byArrival.thenComparing(byPrice).thenComparingInt(c -> c.legs.length);
+            this.best = new PriorityQueue<>(limit + 1, order.reversed());
+        }
+
+        /**
+         * True if anything built on a partial itinerary with this price and arrival
+         * would rank below every kept result. Prices and times only grow with more legs.
+         */
+        boolean pruned(double price, int arrives) {
+            if (best.size() < limit) {
+                return false;
+            }
+            Candidate worst = best.peek();
+            return sortBy == SortBy.PRICE ? price > worst.price : arrives > worst.arrives;
+        }
+
+        void offer(Leg... legs) {
+            double price = 0;
+            for (Leg leg : legs) {
+                price += leg.flight().getBasePrice();
+            }
+            Candidate candidate = new Candidate(legs, price, legs[legs.length - 1].arrives());
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (order.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        List<Itinerary> results() {
+            List<Candidate> sorted = new ArrayList<>(best);
+            sorted.sort(order);
+            return sorted.stream().map(this::toItinerary).toList();
+        }
+
+        private Itinerary toItinerary(Candidate candidate) {
+            List<Flight> flights = Arrays.stream(candidate.legs)
+                    .map(leg -> leg.flight().copyWithAvailableSeats(routeIndexService.availableSeats(leg.flight())))
+                    .toList();
+            int departs = candidate.legs[0].departs();
+            return new Itinerary(
+                    flights,
+                    candidate.legs.length - 1,
+                    Math.round(candidate.price * 100) / 100.0,
+                    RouteGraph.formatMinute(departs),
+                    RouteGraph.formatMinute(candidate.arrives),
+                    candidate.arrives - departs
+            );
+        }
+    }
+
+    private record Candidate(Leg[] legs, double price, int arrives) {}
+
+    /**
+     * A bookable sequence of flights; arrival time is estimated where flights have none.
+     */
+    public record Itinerary(
+            List<Flight> flights,
+            int stops,
+            double totalPrice,
+            String departureTime,
+            String arrivalTime,
+            int durationMinutes
+    ) {}
+}
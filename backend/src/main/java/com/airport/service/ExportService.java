@@ -0,0 +1,184 @@
+package com.airport.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.temporal.Temporal;
+
+/**
+ * Export service - streams the flight schedule and booking list as NDJSON or CSV.
+ *
+ * Rows are read through a forward-only JDBC result set with a fixed fetch size
+ * and written to the output as they arrive, without entities or a persistence
+ * context, so memory use does not grow with the number of rows.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String FLIGHTS_SQL =
+            "SELECT f.id, f.flight_number, f.origin, f.destination, f.departure_time, f.arrival_time, " +
+            "f.capacity, f.available_seats, f.base_price " +
+            "FROM flights f ORDER BY f.id";
+
+    private static final String BOOKINGS_SQL =
+            "SELECT b.id, b.booking_reference, b.status, u.email AS user_email, " +
+            "f.flight_number, f.origin, f.destination, f.departure_time, " +
+            "p.first_name AS passenger_first_name, p.last_name AS passenger_last_name, " +
+            "b.seat_number, b.total_price, b.booking_date, b.hold_expires_at " +
+            "FROM bookings b " +
+            "JOIN users u ON u.id = b.user_id " +
+            "JOIN flights f ON f.id = b.flight_id " +
+            "JOIN passengers p ON p.id = b.passenger_id " +
+            "ORDER BY b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SeatInventoryService seatInventoryService;
+
+    @Autowired
+    public ExportService(DataSource dataSource,
+                         ObjectMapper objectMapper,
+                         SeatInventoryService seatInventoryService,
+                         @Value("${airport.export.fetch-size:1000}") int fetchSize) {
+        // Own template so the fetch size applies to exports only
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.seatInventoryService = seatInventoryService;
+    }
+
+    /**
+     * Export the flight schedule. In ledger mode seat counts reach the flights table
+     * in write-behind batches, so pending ones are flushed first; available seats
+     * are then as of the start of the export.
+     */
+    public void exportFlights(Format format, OutputStream out) throws IOException {
+        seatInventoryService.flush();
+        export(FLIGHTS_SQL, format, out);
+    }
+
+    public void exportBookings(Format format, OutputStream out) throws IOException {
+        export(BOOKINGS_SQL, format, out);
+    }
+
+    private void export(String sql, Format format, OutputStream out) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                writeCsv(sql, out);
+            } else {
+                writeNdjson(sql, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(String sql, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Rows are separated by newlines instead of the default space
+            json.setRootValueSeparator(null);
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    json.writeStartObject();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        json.writeFieldName(fieldName(meta.getColumnLabel(i)));
+                        json.writeObject(valueOf(rs, i));
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(String sql, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // The header comes from the result set metadata, so an empty table still gets one
+        jdbcTemplate.query(sql, (ResultSetExtractor<Void>) rs -> {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    writer.write(i > 1 ? "," : "");
+                    writer.write(fieldName(meta.getColumnLabel(i)));
+                }
+                writer.write("\r\n");
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        writer.write(i > 1 ? "," : "");
+                        Object value = valueOf(rs, i);
+                        if (value != null) {
+                            writer.write(csvEscape(value.toString()));
+                        }
+                    }
+                    writer.write("\r\n");
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static Object valueOf(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof Time time) {
+            return time.toLocalTime().toString();
+        }
+        if (value instanceof Temporal temporal) {
+            return temporal.toString();
+        }
+        return value;
+    }
+
+    // flight_number -> flightNumber, matching the JSON field names of the API
+    private static String fieldName(String column) {
+        String lower = column.toLowerCase();
+        StringBuilder name = new StringBuilder(lower.length());
+        boolean upper = false;
+        for (char c : lower.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,133 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.repository.FlightRepository;
+import com.airport.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Flight cache service - read-through cache for single-flight lookups.
+ *
+ * Flights are cached by id, and flight numbers map to ids, in bounded caches with
+ * a time to live. FlightService evicts a flight after a create, update or delete
+ * commits, and CatalogSyncService after one made by another instance. Seat counts
+ * are not cached: every lookup returns a copy carrying the count from
+ * SeatInventoryService, so bookings never invalidate entries. Unknown ids and
+ * numbers are not cached.
+ *
+ * A lookup may load a row just before an update commits and cache it just after
+ * that update's evict. To keep such a stale copy out, every evict first bumps a
+ * generation for the id and numbers it drops, and a lookup keeps what it loaded
+ * only if the generation of its key did not move since before the load.
+ * Generations are striped by key hash, so an unrelated evict at worst costs one
+ * lookup its cache entry.
+ */
+@Service
+public class FlightCacheService {
+
+    private static final int GENERATION_STRIPES = 256;
+
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final BoundedCache<Long, Flight> flightsById;
+    private final BoundedCache<String, Long> idsByNumber;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Autowired
+    public FlightCacheService(FlightRepository flightRepository,
+                              SeatInventoryService seatInventoryService,
+                              @Value("${airport.flight-cache.max-entries:2000}") int maxEntries,
+                              @Value("${airport.flight-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.flightsById = new BoundedCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+        this.idsByNumber = new BoundedCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public Optional<Flight> getById(Long id) {
+        Flight cached = flightsById.get(id);
+        if (cached == null) {
+            long generation = generationOf(id);
+            Optional<Flight> loaded = flightRepository.findById(id);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            cached = cache(loaded.get(), id, generation);
+        }
+        return Optional.of(withSeats(cached));
+    }
+
+    public Optional<Flight> getByNumber(String flightNumber) {
+        Long id = idsByNumber.get(flightNumber);
+        Flight cached = id != null ? flightsById.get(id) : null;
+        if (cached == null) {
+            long generation = generationOf(flightNumber);
+            Optional<Flight> loaded = flightRepository.findByFlightNumber(flightNumber);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            cached = cache(loaded.get(), flightNumber, generation);
+        }
+        return Optional.of(withSeats(cached));
+    }
+
+    /**
+     * Drop a flight and any flight numbers it was cached under.
+     */
+    public void evict(Long id, String... flightNumbers) {
+        // Bump before removing, so a lookup that put after the remove sees the bump
+        generations.incrementAndGet(stripeOf(id));
+        for (String flightNumber : flightNumbers) {
+            if (flightNumber != null) {
+                generations.incrementAndGet(stripeOf(flightNumber));
+            }
+        }
+        flightsById.remove(id);
+        for (String flightNumber : flightNumbers) {
+            if (flightNumber != null) {
+                idsByNumber.remove(flightNumber);
+            }
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(flightsById.stats(), idsByNumber.stats());
+    }
+
+    /**
+     * Cache a loaded flight, then take it out again if the key it was looked up by
+     * was evicted since the generation was read.
+     */
+    private Flight cache(Flight flight, Object key, long generation) {
+        Flight copy = flight.copyWithAvailableSeats(flight.getAvailableSeats());
+        flightsById.put(copy.getId(), copy);
+        idsByNumber.put(copy.getFlightNumber(), copy.getId());
+        if (generationOf(key) != generation) {
+            flightsById.remove(copy.getId());
+            idsByNumber.remove(copy.getFlightNumber());
+        }
+        return copy;
+    }
+
+    private long generationOf(Object key) {
+        return generations.get(stripeOf(key));
+    }
+
+    private static int stripeOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private Flight withSeats(Flight cached) {
+        int available = seatInventoryService.getAvailableSeats(cached.getId());
+        return cached.copyWithAvailableSeats(available >= 0 ? available : cached.getAvailableSeats());
+    }
+
+    public record CacheStats(BoundedCache.Stats byId, BoundedCache.Stats byNumber) {}
+}
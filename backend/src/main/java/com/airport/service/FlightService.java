@@ -2,11 +2,20 @@ package com.airport.service;
 
 import com.airport.model.Flight;
 import com.airport.repository.FlightRepository;
+import com.airport.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
@@ -17,43 +26,123 @@ import java.util.Optional;
 @Transactional
 public class FlightService {
 
+    // Departure window bounds: "14:30" or "02:30 PM"
+    private static final DateTimeFormatter WINDOW_TIME_FORMAT = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("[" + Flight.TIME_PATTERN + "][HH:mm]")
+            .toFormatter(Locale.US);
+
     private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapService seatMapService;
+    private final RouteIndexService routeIndexService;
+    private final FlightCacheService flightCacheService;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${airport.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${airport.pagination.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${airport.pagination.max-unpaged:1000}")
+    private int maxUnpaged;
 
     @Autowired
-    public FlightService(FlightRepository flightRepository) {
+    public FlightService(FlightRepository flightRepository,
+                         SeatInventoryService seatInventoryService,
+                         SeatMapService seatMapService,
+                         RouteIndexService routeIndexService,
+                         FlightCacheService flightCacheService,
+                         CatalogVersion catalogVersion) {
         this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.seatMapService = seatMapService;
+        this.routeIndexService = routeIndexService;
+        this.flightCacheService = flightCacheService;
+        this.catalogVersion = catalogVersion;
     }
 
+    /**
+     * All flights in id order. Throws if there are more than the unpaged limit.
+     */
     public List<Flight> getAllFlights() {
-        return flightRepository.findAll();
+        return checkUnpaged(flightRepository.findPageAfter(0L, PageRequest.of(0, maxUnpaged + 1)));
     }
 
+    /**
+     * Flights with seats in id order. Throws if there are more than the unpaged limit.
+     */
     public List<Flight> getAvailableFlights() {
-        return flightRepository.findAvailableFlights();
+        return checkUnpaged(flightRepository.findAvailablePageAfter(0L, PageRequest.of(0, maxUnpaged + 1)));
     }
 
+    public KeysetPage<Flight> getFlightsPage(String cursor, Integer size) {
+        int pageSize = KeysetPage.pageSize(size, defaultPageSize, maxPageSize);
+        long afterId = KeysetPage.decodeCursor("flights", cursor);
+        List<Flight> rows = flightRepository.findPageAfter(afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of("flights", rows, pageSize, Flight::getId);
+    }
+
+    public KeysetPage<Flight> getAvailableFlightsPage(String cursor, Integer size) {
+        int pageSize = KeysetPage.pageSize(size, defaultPageSize, maxPageSize);
+        long afterId = KeysetPage.decodeCursor("available-flights", cursor);
+        List<Flight> rows = flightRepository.findAvailablePageAfter(afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of("available-flights", rows, pageSize, Flight::getId);
+    }
+
+    // Single-flight lookups are served by the flight cache
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Flight> getFlightById(Long id) {
-        return flightRepository.findById(id);
+        return flightCacheService.getById(id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Flight> getFlightByNumber(String flightNumber) {
-        return flightRepository.findByFlightNumber(flightNumber);
+        return flightCacheService.getByNumber(flightNumber);
+    }
+
+    // Searches are served by the in-memory route index and need no transaction.
+    // departAfter and departBefore are optional, inclusive bounds on departure time.
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Flight> searchByDestination(String destination, LocalTime departAfter, LocalTime departBefore) {
+        checkWindow(departAfter, departBefore);
+        return routeIndexService.findByDestination(destination, departAfter, departBefore);
     }
 
-    public List<Flight> searchByDestination(String destination) {
-        return flightRepository.findByDestinationIgnoreCase(destination);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Flight> searchByOrigin(String origin, LocalTime departAfter, LocalTime departBefore) {
+        checkWindow(departAfter, departBefore);
+        return routeIndexService.findByOrigin(origin, departAfter, departBefore);
     }
 
-    public List<Flight> searchByOrigin(String origin) {
-        return flightRepository.findByOriginIgnoreCase(origin);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Flight> searchByRoute(String origin, String destination, LocalTime departAfter, LocalTime departBefore) {
+        checkWindow(departAfter, departBefore);
+        return routeIndexService.findByRoute(origin, destination, departAfter, departBefore);
     }
 
-    public List<Flight> searchByRoute(String origin, String destination) {
-        return flightRepository.findByRoute(origin, destination);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Flight> searchAvailableByRoute(String origin, String destination,
+                                               LocalTime departAfter, LocalTime departBefore) {
+        checkWindow(departAfter, departBefore);
+        return routeIndexService.findAvailableByRoute(origin, destination, departAfter, departBefore);
     }
 
-    public List<Flight> searchAvailableByRoute(String origin, String destination) {
-        return flightRepository.findAvailableByRoute(origin, destination);
+    /**
+     * Parse a departure window bound; null or blank means unbounded.
+     */
+    public LocalTime parseWindowTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(value.trim(), WINDOW_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid time '" + value + "'; use HH:mm or hh:mm AM/PM");
+        }
     }
 
     public Flight createFlight(Flight flight) {
@@ -61,44 +150,87 @@ public class FlightService {
         if (flight.getAvailableSeats() == 0) {
             flight.setAvailableSeats(flight.getCapacity());
         }
-        return flightRepository.save(flight);
+        Flight saved = flightRepository.save(flight);
+        seatInventoryService.register(saved);
+        TransactionHooks.afterCommit(() -> {
+            routeIndexService.put(saved);
+            flightCacheService.evict(saved.getId(), saved.getFlightNumber());
+            catalogVersion.advance();
+        });
+        return saved;
     }
 
     public Flight updateFlight(Long id, Flight flightDetails) {
         return flightRepository.findById(id)
                 .map(flight -> {
+                    // Resize before touching the entity, so the statement sees the stored capacity
+                    if (flightDetails.getCapacity() != flight.getCapacity()) {
+                        if (!seatInventoryService.resize(id, flightDetails.getCapacity())) {
+                            int sold = flight.getCapacity() - seatInventoryService.getAvailableSeats(id);
+                            throw new RuntimeException("Capacity cannot be below the " + sold + " seats already sold");
+                        }
+                        // Resized in place, so seats claimed by open bookings are kept
+                        if (!seatMapService.resize(id, flightDetails.getCapacity())) {
+                            throw new RuntimeException("Capacity change would renumber or remove seats already taken");
+                        }
+                    }
+                    // Raise the revision whatever field changes, so other instances pick the edit up
+                    seatInventoryService.touch(id);
+                    String previousNumber = flight.getFlightNumber();
                     flight.setFlightNumber(flightDetails.getFlightNumber());
                     flight.setOrigin(flightDetails.getOrigin());
                     flight.setDestination(flightDetails.getDestination());
                     flight.setDepartureTime(flightDetails.getDepartureTime());
+                    flight.setArrivalTime(flightDetails.getArrivalTime());
                     flight.setCapacity(flightDetails.getCapacity());
                     flight.setBasePrice(flightDetails.getBasePrice());
-                    return flightRepository.save(flight);
+                    Flight saved = flightRepository.save(flight);
+                    // Report the inventory's count; the column is never written from the entity
+                    saved.setAvailableSeats(seatInventoryService.getAvailableSeats(id));
+                    TransactionHooks.afterCommit(() -> {
+                        routeIndexService.put(saved);
+                        flightCacheService.evict(id, previousNumber, saved.getFlightNumber());
+                        catalogVersion.advance();
+                    });
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
     }
 
     public void deleteFlight(Long id) {
+        String flightNumber = flightRepository.findById(id).map(Flight::getFlightNumber).orElse(null);
         flightRepository.deleteById(id);
+        seatInventoryService.remove(id);
+        seatMapService.evict(id);
+        TransactionHooks.afterCommit(() -> {
+            routeIndexService.remove(id);
+            flightCacheService.evict(id, flightNumber);
+            catalogVersion.advance();
+        });
+    }
+
+    public Optional<SeatMap> getSeatMap(Long flightId) {
+        return seatMapService.getSeatMap(flightId);
     }
 
     public boolean bookSeat(Long flightId) {
-        return flightRepository.findById(flightId)
-                .map(flight -> {
-                    boolean booked = flight.bookSeat();
-                    if (booked) {
-                        flightRepository.save(flight);
-                    }
-                    return booked;
-                })
-                .orElse(false);
+        return seatInventoryService.tryReserve(flightId);
     }
 
     public void cancelSeat(Long flightId) {
-        flightRepository.findById(flightId)
-                .ifPresent(flight -> {
-                    flight.cancelSeat();
-                    flightRepository.save(flight);
-                });
+        seatInventoryService.release(flightId);
+    }
+
+    private List<Flight> checkUnpaged(List<Flight> flights) {
+        if (flights.size() > maxUnpaged) {
+            throw new RuntimeException("More than " + maxUnpaged + " flights; use the size and cursor parameters");
+        }
+        return flights;
+    }
+
+    private void checkWindow(LocalTime departAfter, LocalTime departBefore) {
+        if (departAfter != null && departBefore != null && departAfter.isAfter(departBefore)) {
+            throw new RuntimeException("departAfter must not be later than departBefore");
+        }
     }
 }
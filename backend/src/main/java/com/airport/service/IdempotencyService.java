@@ -0,0 +1,132 @@
+package com.airport.service;
+
+import com.airport.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency service - replays the original response for retried requests.
+ *
+ * Requests carrying an Idempotency-Key header are keyed by user, operation and
+ * key. The first request runs; concurrent duplicates wait for its result instead
+ * of running again, for up to airport.idempotency.wait-ms. Its outcome is kept in
+ * a bounded, expiring cache so later retries are answered without touching the
+ * database - refusals such as a sold-out flight included, so a retry never runs a
+ * request a second time. Only 5xx responses are not kept: they mean the request
+ * was turned away without running (e.g. a busy booking partition), so a retry may
+ * run. Reusing a key for a different request body is rejected.
+ *
+ * Keys live in memory on the instance that served the request.
+ */
+@Service
+public class IdempotencyService {
+
+    private final BoundedCache<String, StoredResponse> completed;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long waitMillis;
+
+    public IdempotencyService(@Value("${airport.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${airport.idempotency.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${airport.idempotency.wait-ms:30000}") long waitMillis) {
+        this.completed = new BoundedCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Run the request once per key. A null or blank key runs it unconditionally.
+     * The fingerprint identifies the request body so key reuse can be detected.
+     */
+    public ResponseEntity<?> execute(Long userId, String operation, String key, Object fingerprint,
+                                     Supplier<ResponseEntity<?>> request) {
+        if (key == null || key.isBlank()) {
+            return request.get();
+        }
+        if (key.length() > 255) {
+            throw new RuntimeException("Idempotency-Key must be at most 255 characters");
+        }
+
+        String scopedKey = userId + ":" + operation + ":" + key;
+        StoredResponse stored = completed.get(scopedKey);
+        if (stored != null) {
+            return stored.replay(fingerprint);
+        }
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            return running.await(fingerprint, waitMillis);
+        }
+
+        try {
+            // Another request may have finished between the cache check and registering
+            stored = completed.get(scopedKey);
+            ResponseEntity<?> response = stored != null ? stored.replay(fingerprint) : request.get();
+            if (stored == null && !response.getStatusCode().is5xxServerError()) {
+                completed.put(scopedKey, new StoredResponse(fingerprint, response));
+            }
+            mine.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    public BoundedCache.Stats getStats() {
+        return completed.stats();
+    }
+
+    private static RuntimeException keyReused() {
+        return new RuntimeException("Idempotency-Key was already used for a different request");
+    }
+
+    private record StoredResponse(Object fingerprint, ResponseEntity<?> response) {
+        ResponseEntity<?> replay(Object requestFingerprint) {
+            if (!Objects.equals(fingerprint, requestFingerprint)) {
+                throw keyReused();
+            }
+            return response;
+        }
+    }
+
+    private static final class InFlight {
+
+        private final Object fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        InFlight(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        ResponseEntity<?> await(Object requestFingerprint, long waitMillis) {
+            if (!Objects.equals(fingerprint, requestFingerprint)) {
+                throw keyReused();
+            }
+            try {
+                return result.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new RuntimeException("A request with this Idempotency-Key is still in progress");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Request interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.airport.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Password hashing service - runs bcrypt on a small bounded pool.
+ *
+ * Hashing and verifying a password costs tens of milliseconds of CPU, so a burst
+ * of logins on request threads would leave none free for searches. Here the work
+ * runs on airport.password-hashing.threads threads with at most queue-capacity
+ * tasks waiting; when the queue is full, or a task waits longer than timeout-ms,
+ * the caller gets a PasswordHashingBusyException at once and the controller
+ * answers 503 with Retry-After. At most threads + queue-capacity request threads
+ * are ever parked here.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int retryAfterSeconds;
+    private final Operation hash = new Operation("hash");
+    private final Operation verify = new Operation("verify");
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${airport.password-hashing.threads:2}") int threads,
+                                  @Value("${airport.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${airport.password-hashing.timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${airport.password-hashing.retry-after-seconds:2}") int retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public String hash(String rawPassword) {
+        return run(hash, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(verify, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True if the hash was made with a lower cost than the one now configured.
+     * Cheap: it only reads the cost from the hash.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public HashingStats getStats() {
+        return new HashingStats(
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                rejected.sum(),
+                hash.stats(),
+                verify.stats()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Operation operation, Callable<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                operation.queueWaitNanos.add(System.nanoTime() - enqueuedAt);
+                try {
+                    return work.call();
+                } finally {
+                    operation.recordLatency(System.nanoTime() - enqueuedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password check interrupted");
+        }
+    }
+
+    /**
+     * Thrown when the pool is saturated; the request should be retried later.
+     */
+    public static class PasswordHashingBusyException extends RuntimeException {
+
+        private final int retryAfterSeconds;
+
+        PasswordHashingBusyException(int retryAfterSeconds) {
+            super("Too many sign-in requests, please retry shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static final class Operation {
+
+        private final String name;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void recordLatency(long nanos) {
+            completed.increment();
+            totalLatencyNanos.add(nanos);
+            maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        OperationStats stats() {
+            long count = completed.sum();
+            return new OperationStats(
+                    name,
+                    count,
+                    count > 0 ? totalLatencyNanos.sum() / count / 1_000 : 0,
+                    count > 0 ? queueWaitNanos.sum() / count / 1_000 : 0,
+                    maxLatencyNanos.get() / 1_000
+            );
+        }
+    }
+
+    /**
+     * Pool metrics; rejected counts full-queue and timed-out requests.
+     */
+    public record HashingStats(
+            int active,
+            int queueDepth,
+            long rejected,
+            OperationStats hash,
+            OperationStats verify
+    ) {}
+
+    /**
+     * Per-operation metrics; latencies are in microseconds and include queue wait.
+     */
+    public record OperationStats(
+            String operation,
+            long completed,
+            long avgLatencyMicros,
+            long avgQueueWaitMicros,
+            long maxLatencyMicros
+    ) {}
+}
@@ -0,0 +1,269 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.FlightDayStats;
+import com.airport.repository.FlightDayStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route analytics service - bookings, cancellations and revenue per route.
+ *
+ * Totals are kept per (flight, booking day) in the flight_day_stats table. Every
+ * booking change adds its delta to its day's row with one UPDATE in the booking's
+ * own transaction, so the totals commit or roll back with it and cover the
+ * bookings of every instance; reports read these rows and never scan the bookings
+ * table. Revenue is the price of bookings not cancelled, holds included, and
+ * everything is attributed to the day the booking was made, so a cancellation
+ * lowers that day's revenue. Reports group flights by their current route and
+ * take seats sold from the committed seat counts, which in database mode
+ * CatalogSyncService refreshes from the flights table, so they include other
+ * instances' sales too.
+ *
+ * A missing row is built from a grouped aggregate over that flight day's
+ * bookings, which include the change itself once flushed, and races to build it
+ * are settled on the primary key as in BookingStatsService. Rows missing for
+ * older bookings, e.g. after upgrading an existing database, are built at startup.
+ */
+@Service
+@Transactional
+public class RouteAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteAnalyticsService.class);
+
+    // Totals from the bookings table for flight days without a row, optionally one flight day
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO flight_day_stats (flight_id, booking_day, bookings, cancellations, revenue) " +
+            "SELECT b.flight_id, CAST(b.booking_date AS DATE), COUNT(b.id), " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status <> 'CANCELLED' THEN b.total_price ELSE 0 END), 0) " +
+            "FROM bookings b " +
+            "WHERE NOT EXISTS (SELECT 1 FROM flight_day_stats s " +
+            "WHERE s.flight_id = b.flight_id AND s.booking_day = CAST(b.booking_date AS DATE))";
+
+    private static final String GROUP_BY_FLIGHT_DAY = " GROUP BY b.flight_id, CAST(b.booking_date AS DATE)";
+
+    private final FlightDayStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final RouteIndexService routeIndexService;
+    private final SeatInventoryService seatInventoryService;
+    private final int retentionDays;
+
+    @Autowired
+    public RouteAnalyticsService(FlightDayStatsRepository statsRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 EntityManager entityManager,
+                                 RouteIndexService routeIndexService,
+                                 SeatInventoryService seatInventoryService,
+                                 @Value("${airport.analytics.retention-days:90}") int retentionDays) {
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.routeIndexService = routeIndexService;
+        this.seatInventoryService = seatInventoryService;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * New bookings; those on the same flight and day are added in one statement.
+     */
+    public void recordBooked(List<Booking> bookings) {
+        Map<FlightDay, double[]> changes = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            double[] change = changes.computeIfAbsent(key(booking), k -> new double[2]);
+            change[0]++;
+            change[1] += booking.getTotalPrice();
+        }
+        changes.forEach((key, change) -> apply(key, (long) change[0], 0, change[1]));
+    }
+
+    /**
+     * A booking was cancelled or its hold expired.
+     */
+    public void recordCancelled(Booking booking) {
+        apply(key(booking), 0, 1, -booking.getTotalPrice());
+    }
+
+    /**
+     * Build the rows of flight days that have none. Runs once the data initializer
+     * has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        int built = insertMissing(null);
+        if (built > 0) {
+            log.info("Built route analytics for {} flight days", built);
+        }
+    }
+
+    /**
+     * Totals and live load factor for every route, highest revenue first.
+     */
+    public List<RouteReport> getRouteReport() {
+        Map<Long, Object[]> byFlight = new HashMap<>();
+        for (Object[] row : statsRepository.sumByFlight()) {
+            byFlight.put((Long) row[0], row);
+        }
+        List<RouteReport> reports = new ArrayList<>();
+        for (List<Flight> route : routeIndexService.routes()) {
+            Flight first = route.get(0);
+            long capacity = 0;
+            long seatsSold = 0;
+            long bookings = 0;
+            long cancellations = 0;
+            double revenue = 0;
+            for (Flight flight : route) {
+                capacity += flight.getCapacity();
+                int available = seatInventoryService.getCommittedSeats(flight.getId());
+                seatsSold += flight.getCapacity() - (available >= 0 ? available : flight.getAvailableSeats());
+                Object[] totals = byFlight.get(flight.getId());
+                if (totals != null) {
+                    bookings += ((Number) totals[1]).longValue();
+                    cancellations += ((Number) totals[2]).longValue();
+                    revenue += ((Number) totals[3]).doubleValue();
+                }
+            }
+            reports.add(new RouteReport(
+                    first.getOrigin(),
+                    first.getDestination(),
+                    route.size(),
+                    capacity,
+                    seatsSold,
+                    capacity > 0 ? round((double) seatsSold / capacity, 4) : 0,
+                    bookings,
+                    cancellations,
+                    round(revenue, 2)
+            ));
+        }
+        reports.sort(Comparator.comparingDouble(RouteReport::revenue).reversed()
+                .thenComparing(RouteReport::origin)
+                .thenComparing(RouteReport::destination));
+        return reports;
+    }
+
+    /**
+     * Totals per route and booking day for the last days days, newest first.
+     */
+    public List<DailyRouteReport> getDailyReport(int days) {
+        if (days < 1 || days > retentionDays) {
+            throw new RuntimeException("Days must be between 1 and " + retentionDays);
+        }
+        Map<Long, Flight> routeOf = new HashMap<>();
+        for (List<Flight> route : routeIndexService.routes()) {
+            route.forEach(flight -> routeOf.put(flight.getId(), route.get(0)));
+        }
+
+        LocalDate oldest = LocalDate.now().minusDays(days - 1L);
+        Map<RouteDay, double[]> totals = new HashMap<>();
+        for (FlightDayStats day : statsRepository.findByBookingDayGreaterThanEqual(oldest)) {
+            Flight route = routeOf.get(day.getFlightId());
+            if (route == null) {
+                continue;
+            }
+            double[] sums = totals.computeIfAbsent(
+                    new RouteDay(day.getBookingDay(), route.getOrigin(), route.getDestination()), k -> new double[3]);
+            sums[0] += day.getBookings();
+            sums[1] += day.getCancellations();
+            sums[2] += day.getRevenue();
+        }
+
+        List<DailyRouteReport> reports = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> reports.add(new DailyRouteReport(
+                key.day(), key.origin(), key.destination(), (long) sums[0], (long) sums[1], round(sums[2], 2))));
+        reports.sort(Comparator.comparing(DailyRouteReport::date).reversed()
+                .thenComparing(DailyRouteReport::origin)
+                .thenComparing(DailyRouteReport::destination));
+        return reports;
+    }
+
+    private void apply(FlightDay key, long bookings, long cancellations, double revenue) {
+        if (statsRepository.add(key.flightId(), key.day(), bookings, cancellations, revenue) > 0) {
+            return;
+        }
+        // No row yet: build it from the bookings, which include this change once flushed
+        if (insertMissing(key) == 0) {
+            // Another transaction built it first, without this change; add it there
+            statsRepository.add(key.flightId(), key.day(), bookings, cancellations, revenue);
+        }
+    }
+
+    /**
+     * Insert the row of one flight day (or, with null, of every flight day) that
+     * has none. Returns the number of rows inserted; 0 if a concurrent transaction
+     * inserted the row first. Bypasses the repository so a key conflict only fails
+     * the statement, not the caller's transaction.
+     */
+    private int insertMissing(FlightDay key) {
+        // Native SQL does not flush, and the aggregate must see this transaction's bookings
+        entityManager.flush();
+        try {
+            return key == null
+                    ? jdbcTemplate.update(INSERT_MISSING_SQL + GROUP_BY_FLIGHT_DAY)
+                    : jdbcTemplate.update(INSERT_MISSING_SQL
+                            + " AND b.flight_id = ? AND CAST(b.booking_date AS DATE) = ?" + GROUP_BY_FLIGHT_DAY,
+                            key.flightId(), Date.valueOf(key.day()));
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+
+    private static FlightDay key(Booking booking) {
+        return new FlightDay(booking.getFlight().getId(), booking.getBookingDate().toLocalDate());
+    }
+
+    private static double round(double value, int places) {
+        double scale = Math.pow(10, places);
+        return Math.round(value * scale) / scale;
+    }
+
+    private record FlightDay(Long flightId, LocalDate day) {}
+
+    private record RouteDay(LocalDate day, String origin, String destination) {}
+
+    /**
+     * Route totals; loadFactor is seats sold over capacity across the route's flights.
+     */
+    public record RouteReport(
+            String origin,
+            String destination,
+            int flights,
+            long capacity,
+            long seatsSold,
+            double loadFactor,
+            long bookings,
+            long cancellations,
+            double revenue
+    ) {}
+
+    /**
+     * Route totals for bookings made on one day.
+     */
+    public record DailyRouteReport(
+            LocalDate date,
+            String origin,
+            String destination,
+            long bookings,
+            long cancellations,
+            double revenue
+    ) {}
+}
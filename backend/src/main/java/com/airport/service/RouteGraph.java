@@ -0,0 +1,112 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Route graph - the schedule as time-ordered legs for connection search.
+ *
+ * Every flight is a leg with departure and arrival in minutes after midnight. Flights
+ * without an arrival time are assumed to take blockMinutes, and an arrival earlier
+ * than the departure is taken as the next day.
+ * Legs are grouped by origin (the adjacency list used for the middle hop) and by
+ * (origin, destination) (used for the final hop), each sorted by departure so the
+ * first leg leaving after a connection is found by binary search. The graph is
+ * immutable and rebuilt by RouteIndexService whenever the schedule changes.
+ */
+final class RouteGraph {
+
+    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern(Flight.TIME_PATTERN, Locale.US);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final Leg[] NO_LEGS = new Leg[0];
+
+    private final Map<String, Leg[]> byOrigin;
+    private final Map<String, Leg[]> byRoute;
+
+    RouteGraph(Collection<Flight> flights, int blockMinutes) {
+        Map<String, List<Leg>> origins = new HashMap<>();
+        Map<String, List<Leg>> routes = new HashMap<>();
+        for (Flight flight : flights) {
+            if (flight.getDepartureTime() == null) {
+                continue;
+            }
+            int departs = minuteOfDay(flight.getDepartureTime());
+            int arrives = flight.getArrivalTime() != null
+                    ? minuteOfDay(flight.getArrivalTime())
+                    : departs + blockMinutes;
+            if (arrives < departs) {
+                arrives += MINUTES_PER_DAY;
+            }
+            Leg leg = new Leg(flight, RouteIndexService.normalize(flight.getOrigin()),
+                    RouteIndexService.normalize(flight.getDestination()), departs, arrives);
+            origins.computeIfAbsent(leg.origin(), key -> new ArrayList<>()).add(leg);
+            routes.computeIfAbsent(RouteIndexService.routeKey(leg.origin(), leg.destination()),
+                    key -> new ArrayList<>()).add(leg);
+        }
+        this.byOrigin = sorted(origins);
+        this.byRoute = sorted(routes);
+    }
+
+    /**
+     * Legs leaving a normalized origin, by departure time.
+     */
+    Leg[] departures(String origin) {
+        return byOrigin.getOrDefault(origin, NO_LEGS);
+    }
+
+    /**
+     * Legs between two normalized cities, by departure time.
+     */
+    Leg[] legs(String origin, String destination) {
+        return byRoute.getOrDefault(RouteIndexService.routeKey(origin, destination), NO_LEGS);
+    }
+
+    /**
+     * Index of the first leg departing at or after the minute; legs.length if none.
+     */
+    static int firstDepartingAt(Leg[] legs, int minute) {
+        int low = 0;
+        int high = legs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (legs[mid].departs() < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    static String formatMinute(int minute) {
+        return LocalTime.of((minute / 60) % 24, minute % 60).format(TIME_FORMAT);
+    }
+
+    private static Map<String, Leg[]> sorted(Map<String, List<Leg>> groups) {
+        Map<String, Leg[]> result = new HashMap<>(groups.size() * 2);
+        groups.forEach((key, legs) -> {
+            legs.sort(Comparator.comparingInt(Leg::departs));
+            result.put(key, legs.toArray(NO_LEGS));
+        });
+        return result;
+    }
+
+    /**
+     * One scheduled flight; times are minutes after midnight, arrival may pass 24:00.
+     */
+    record Leg(Flight flight, String origin, String destination, int departs, int arrives) {}
+}
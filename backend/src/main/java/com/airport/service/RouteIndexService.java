@@ -0,0 +1,239 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Route index service - answers flight searches from memory.
+ *
+ * Flights are grouped by normalized origin, destination and (origin, destination),
+ * each group sorted by departure time so a departure window is two binary searches.
+ * The groups live in an immutable snapshot that is rebuilt and swapped in whenever
+ * FlightService creates, updates or deletes a flight (after its transaction
+ * commits), and by CatalogSyncService for flights changed by other instances, so
+ * searches never lock or query the database. Seat counts are not stored in the
+ * index; results carry the count from SeatInventoryService, which in database
+ * mode is refreshed from the flights table on the same schedule.
+ * The snapshot also holds the RouteGraph used for connection search and the
+ * CityIndex used for city suggestions.
+ */
+@Service
+public class RouteIndexService {
+
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final int blockMinutes;
+
+    private final ConcurrentHashMap<Long, Flight> flights = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public RouteIndexService(FlightRepository flightRepository,
+                             SeatInventoryService seatInventoryService,
+                             @Value("${airport.connections.block-minutes:90}") int blockMinutes) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.blockMinutes = blockMinutes;
+    }
+
+    /**
+     * Flights on a route, by departure time. departAfter and departBefore are
+     * inclusive bounds and may be null.
+     */
+    public List<Flight> findByRoute(String origin, String destination, LocalTime departAfter, LocalTime departBefore) {
+        return withSeats(window(snapshot().byRoute.get(routeKey(origin, destination)), departAfter, departBefore), false);
+    }
+
+    public List<Flight> findAvailableByRoute(String origin, String destination,
+                                             LocalTime departAfter, LocalTime departBefore) {
+        return withSeats(window(snapshot().byRoute.get(routeKey(origin, destination)), departAfter, departBefore), true);
+    }
+
+    public List<Flight> findByOrigin(String origin, LocalTime departAfter, LocalTime departBefore) {
+        return withSeats(window(snapshot().byOrigin.get(normalize(origin)), departAfter, departBefore), false);
+    }
+
+    public List<Flight> findByDestination(String destination, LocalTime departAfter, LocalTime departBefore) {
+        return withSeats(window(snapshot().byDestination.get(normalize(destination)), departAfter, departBefore), false);
+    }
+
+    /**
+     * Current route graph for connection search.
+     */
+    RouteGraph graph() {
+        return snapshot().graph;
+    }
+
+    /**
+     * Current city index for suggestions.
+     */
+    CityIndex cities() {
+        return snapshot().cities;
+    }
+
+    /**
+     * Current flights grouped by route, each group sorted by departure time.
+     */
+    Collection<List<Flight>> routes() {
+        return snapshot().byRoute.values();
+    }
+
+    /**
+     * Seats left on a flight as of the last commit, from the seat inventory, so
+     * searches never show a seat change that may still roll back.
+     */
+    int availableSeats(Flight flight) {
+        int available = seatInventoryService.getCommittedSeats(flight.getId());
+        return available >= 0 ? available : flight.getAvailableSeats();
+    }
+
+    /**
+     * Add or replace a flight.
+     */
+    public void put(Flight flight) {
+        putAll(List.of(flight), List.of());
+    }
+
+    public void remove(Long flightId) {
+        putAll(List.of(), List.of(flightId));
+    }
+
+    /**
+     * Add or replace some flights and drop others, rebuilding the index once.
+     */
+    public synchronized void putAll(Collection<Flight> changed, Collection<Long> removed) {
+        boolean modified = false;
+        for (Flight flight : changed) {
+            flights.put(flight.getId(), flight.copyWithAvailableSeats(flight.getAvailableSeats()));
+            modified = true;
+        }
+        for (Long flightId : removed) {
+            modified |= flights.remove(flightId) != null;
+        }
+        if (modified) {
+            rebuild();
+        }
+    }
+
+    /**
+     * The indexed copy of a flight, or null if it is not indexed.
+     */
+    Flight indexed(Long flightId) {
+        return flights.get(flightId);
+    }
+
+    /**
+     * Load every flight from the database and rebuild the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        flights.clear();
+        flightRepository.findAll().forEach(flight ->
+                flights.put(flight.getId(), flight.copyWithAvailableSeats(flight.getAvailableSeats())));
+        rebuild();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private synchronized void rebuild() {
+        snapshot = new Snapshot(flights.values(), blockMinutes);
+    }
+
+    private List<Flight> withSeats(List<Flight> indexed, boolean availableOnly) {
+        if (indexed == null) {
+            return List.of();
+        }
+        List<Flight> result = new ArrayList<>(indexed.size());
+        for (Flight flight : indexed) {
+            int available = availableSeats(flight);
+            if (!availableOnly || available > 0) {
+                // Callers get their own copy; indexed flights are shared between threads
+                result.add(flight.copyWithAvailableSeats(available));
+            }
+        }
+        return result;
+    }
+
+    private static List<Flight> window(List<Flight> indexed, LocalTime departAfter, LocalTime departBefore) {
+        if (indexed == null || (departAfter == null && departBefore == null)) {
+            return indexed;
+        }
+        int from = departAfter != null ? firstDepartingAfter(indexed, departAfter, false) : 0;
+        int to = departBefore != null ? firstDepartingAfter(indexed, departBefore, true) : indexed.size();
+        return from < to ? indexed.subList(from, to) : List.of();
+    }
+
+    /**
+     * Index of the first flight departing at or after the time (strictly after if
+     * exclusive); indexed.size() if none.
+     */
+    private static int firstDepartingAfter(List<Flight> indexed, LocalTime time, boolean exclusive) {
+        int low = 0;
+        int high = indexed.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = indexed.get(mid).getDepartureTime().compareTo(time);
+            if (cmp < 0 || (exclusive && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String routeKey(String origin, String destination) {
+        return normalize(origin) + '\n' + normalize(destination);
+    }
+
+    private static final class Snapshot {
+
+        final Map<String, List<Flight>> byRoute = new HashMap<>();
+        final Map<String, List<Flight>> byOrigin = new HashMap<>();
+        final Map<String, List<Flight>> byDestination = new HashMap<>();
+        final RouteGraph graph;
+        final CityIndex cities;
+
+        Snapshot(Collection<Flight> flights, int blockMinutes) {
+            List<Flight> sorted = new ArrayList<>(flights);
+            sorted.sort(Comparator.comparing(Flight::getDepartureTime).thenComparing(Flight::getId));
+            for (Flight flight : sorted) {
+                byRoute.computeIfAbsent(routeKey(flight.getOrigin(), flight.getDestination()),
+                        key -> new ArrayList<>()).add(flight);
+                byOrigin.computeIfAbsent(normalize(flight.getOrigin()), key -> new ArrayList<>()).add(flight);
+                byDestination.computeIfAbsent(normalize(flight.getDestination()), key -> new ArrayList<>()).add(flight);
+            }
+            byRoute.replaceAll((key, list) -> List.copyOf(list));
+            byOrigin.replaceAll((key, list) -> List.copyOf(list));
+            byDestination.replaceAll((key, list) -> List.copyOf(list));
+            graph = new RouteGraph(flights, blockMinutes);
+            cities = new CityIndex(sorted);
+        }
+    }
+}
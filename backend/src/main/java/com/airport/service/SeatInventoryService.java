@@ -0,0 +1,511 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.repository.BookingRepository;
+import com.airport.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Seat inventory service - single entry point for reserving and releasing seats.
+ *
+ * Two modes, selected with airport.inventory.mode:
+ * - database (default): each change is one conditional UPDATE on the flights row,
+ *   so seat counts stay correct across any number of backend instances.
+ * - ledger: seat counts are held in atomic counters keyed by flight id and updated
+ *   with compare-and-set, so reserving or releasing a seat never reads or locks the
+ *   flights row. Changed counters are written back in batches (write-behind) and the
+ *   ledger is rebuilt from the bookings table on startup. Single instance only.
+ *
+ * In database mode the counters are kept as a local mirror of the flights table,
+ * updated at once by this instance's changes and refreshed from the table by
+ * CatalogSyncService, so changes made by other instances show up within its
+ * interval. Each counter tracks the row revision its committed count reflects and
+ * how many of this instance's statements on the row are still uncommitted; a
+ * refresh only applies a row with a newer revision, and waits while local changes
+ * are in flight, so it never rolls the counter back to an older row. A seat
+ * listener, if set, is told about every committed counter change.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventoryService.class);
+
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
+    private final boolean writeBehind;
+
+    private final ConcurrentHashMap<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyFlights = ConcurrentHashMap.newKeySet();
+    private volatile LongConsumer seatListener = flightId -> { };
+
+    @Autowired
+    public SeatInventoryService(FlightRepository flightRepository,
+                                BookingRepository bookingRepository,
+                                JdbcTemplate jdbcTemplate,
+                                CatalogVersion catalogVersion,
+                                @Value("${airport.inventory.mode:database}") String mode) {
+        this.flightRepository = flightRepository;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersion = catalogVersion;
+        this.writeBehind = "ledger".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Reserve one seat on a flight. Returns false if the flight is full or unknown.
+     * If called inside a transaction, the seat is given back when it rolls back.
+     */
+    public boolean tryReserve(Long flightId) {
+        return tryReserve(flightId, 1);
+    }
+
+    /**
+     * Reserve several seats on a flight, all or none. Returns false if there are
+     * not enough seats or the flight is unknown. If called inside a transaction,
+     * the seats are given back when it rolls back.
+     */
+    public boolean tryReserve(Long flightId, int count) {
+        SeatCounter counter = counterFor(flightId);
+        if (counter == null) {
+            return false;
+        }
+        if (!writeBehind) {
+            if (!update(counter, () -> count == 1
+                    ? flightRepository.reserveSeat(flightId)
+                    : flightRepository.reserveSeats(flightId, count))) {
+                return false;
+            }
+            counter.tryAdd(-count);
+            TransactionHooks.onRollback(() -> counter.tryAdd(count));
+            changed(flightId, counter, -count);
+            return true;
+        }
+        if (!counter.tryAdd(-count)) {
+            return false;
+        }
+        dirtyFlights.add(flightId);
+        TransactionHooks.onRollback(() -> {
+            counter.tryAdd(count);
+            dirtyFlights.add(flightId);
+        });
+        changed(flightId, counter, -count);
+        return true;
+    }
+
+    /**
+     * Release one seat on a flight. Never exceeds the flight capacity.
+     * If called inside a transaction, the seat is taken again when it rolls back.
+     */
+    public void release(Long flightId) {
+        SeatCounter counter = counterFor(flightId);
+        if (counter == null) {
+            return;
+        }
+        if (!writeBehind) {
+            if (update(counter, () -> flightRepository.releaseSeat(flightId))) {
+                counter.tryAdd(1);
+                TransactionHooks.onRollback(() -> counter.tryAdd(-1));
+                changed(flightId, counter, 1);
+            }
+            return;
+        }
+        if (counter.tryAdd(1)) {
+            dirtyFlights.add(flightId);
+            TransactionHooks.onRollback(() -> {
+                if (counter.tryAdd(-1)) {
+                    dirtyFlights.add(flightId);
+                }
+            });
+            changed(flightId, counter, 1);
+        }
+    }
+
+    /**
+     * Change a flight's capacity, shifting its available seats by the same amount.
+     * Returns false, changing nothing, if the new capacity is below the seats already
+     * sold or the flight is unknown. In database mode capacity and seat count change
+     * together in one conditional UPDATE, so concurrent bookings are accounted for.
+     */
+    public boolean resize(Long flightId, int capacity) {
+        SeatCounter counter = counterFor(flightId);
+        if (counter == null) {
+            return false;
+        }
+        int previous = counter.capacity;
+        if (!writeBehind) {
+            if (!update(counter, () -> flightRepository.resize(flightId, capacity))) {
+                return false;
+            }
+            counter.resize(capacity);
+            TransactionHooks.onRollback(() -> counter.resize(previous));
+            changed(flightId, counter, capacity - previous);
+            return true;
+        }
+        if (!counter.tryResize(capacity)) {
+            return false;
+        }
+        dirtyFlights.add(flightId);
+        TransactionHooks.onRollback(() -> {
+            counter.resize(previous);
+            dirtyFlights.add(flightId);
+        });
+        changed(flightId, counter, capacity - previous);
+        return true;
+    }
+
+    /**
+     * Raise a flight's revision after an edit made through the entity, so other
+     * instances pick the edit up. The counter's revision follows once it commits.
+     */
+    public void touch(Long flightId) {
+        SeatCounter counter = counterFor(flightId);
+        if (counter == null || writeBehind) {
+            flightRepository.touch(flightId);
+            return;
+        }
+        if (update(counter, () -> flightRepository.touch(flightId))) {
+            TransactionHooks.onRollback(counter::endRolledBack);
+            TransactionHooks.afterCommit(counter::endCommitted);
+        }
+    }
+
+    /**
+     * Set the listener told the flight id whenever a seat count changes. It is only
+     * told once the change has committed, never about one that rolls back, and runs
+     * on the committing thread, so it must be quick.
+     */
+    public void setSeatListener(LongConsumer listener) {
+        this.seatListener = listener;
+    }
+
+    /**
+     * Current number of available seats, or -1 if the flight is unknown. Includes
+     * seats taken or given back by transactions that have not finished yet.
+     */
+    public int getAvailableSeats(Long flightId) {
+        SeatCounter counter = counterFor(flightId);
+        return counter != null ? counter.available.get() : -1;
+    }
+
+    /**
+     * Available seats as of the last commit, or -1 if the flight is unknown. Changes
+     * made by transactions still open are left out, so the count never shows a seat
+     * change that later rolls back.
+     */
+    public int getCommittedSeats(Long flightId) {
+        SeatCounter counter = counterFor(flightId);
+        return counter != null ? counter.committed() : -1;
+    }
+
+    /**
+     * Track a newly created flight. Capacity changes go through resize.
+     */
+    public void register(Flight flight) {
+        counters.put(flight.getId(), new SeatCounter(flight));
+        if (writeBehind) {
+            dirtyFlights.add(flight.getId());
+        }
+        TransactionHooks.afterCommit(() -> seatListener.accept(flight.getId()));
+    }
+
+    /**
+     * Bring a flight's counter in line with its committed row, which may have been
+     * changed by another instance. A row whose revision is not newer than the
+     * counter's is ignored, and so is any row while this instance has uncommitted
+     * changes to the flight: the result is DEFERRED and the caller should offer the
+     * row again later. A no-op in ledger mode, where the counters themselves are
+     * the source of truth.
+     */
+    public Refresh refresh(Flight flight) {
+        if (writeBehind) {
+            return Refresh.UNCHANGED;
+        }
+        SeatCounter counter = counters.putIfAbsent(flight.getId(), new SeatCounter(flight));
+        Refresh result = counter != null ? counter.refresh(flight) : Refresh.UPDATED;
+        if (result == Refresh.UPDATED) {
+            seatListener.accept(flight.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Stop tracking a deleted flight.
+     */
+    public void remove(Long flightId) {
+        counters.remove(flightId);
+        dirtyFlights.remove(flightId);
+    }
+
+    /**
+     * Rebuild the counters on startup. In ledger mode available seats are
+     * recomputed from the bookings table, which also repairs counts lost by an
+     * unclean shutdown before the last write-behind flush.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!writeBehind) {
+            flightRepository.findAll().forEach(flight -> counters.put(flight.getId(), new SeatCounter(flight)));
+            log.info("Seat inventory loaded for {} flights", counters.size());
+            return;
+        }
+
+        Map<Long, Long> heldSeats = new HashMap<>();
+        for (Object[] row : bookingRepository.countSeatsByFlight(Booking.SEAT_HOLDING_STATUSES)) {
+            heldSeats.put((Long) row[0], (Long) row[1]);
+        }
+
+        int repaired = 0;
+        for (Flight flight : flightRepository.findAll()) {
+            int held = heldSeats.getOrDefault(flight.getId(), 0L).intValue();
+            int available = Math.max(0, flight.getCapacity() - held);
+            counters.put(flight.getId(), new SeatCounter(available, flight.getCapacity(), flight.getRevision()));
+            if (available != flight.getAvailableSeats()) {
+                dirtyFlights.add(flight.getId());
+                repaired++;
+            }
+        }
+        flush();
+        log.info("Seat inventory recovered for {} flights ({} repaired)", counters.size(), repaired);
+    }
+
+    /**
+     * Write changed seat counts back to the flights table in a single JDBC batch,
+     * then advance the catalog version so the new counts are not served as not modified.
+     */
+    @Scheduled(fixedDelayString = "${airport.inventory.flush-interval-ms:500}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        Iterator<Long> it = dirtyFlights.iterator();
+        while (it.hasNext()) {
+            Long flightId = it.next();
+            it.remove();
+            SeatCounter counter = counters.get(flightId);
+            if (counter != null) {
+                batch.add(new Object[]{counter.available.get(), flightId});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("UPDATE flights SET available_seats = ?, revision = revision + 1 WHERE id = ?",
+                    batch);
+            catalogVersion.advance();
+        } catch (RuntimeException e) {
+            // Keep the flights dirty so the next flush retries them
+            batch.forEach(args -> dirtyFlights.add((Long) args[1]));
+            log.error("Seat inventory flush failed for {} flights", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Once the current transaction commits (at once outside one), add a counter
+     * change to the committed count and tell the listener. A change that rolls back
+     * is undone by its own rollback hook and never reaches either. In database mode
+     * this also ends the statement begun by update, after the count is settled, so
+     * a refresh never sees the counter half way, and advances the catalog version,
+     * since the row has changed; in ledger mode the flush does that.
+     */
+    private void changed(Long flightId, SeatCounter counter, int delta) {
+        if (!writeBehind) {
+            // Registered after the change's own rollback hook, so it runs after it
+            TransactionHooks.onRollback(counter::endRolledBack);
+        }
+        TransactionHooks.afterCommit(() -> {
+            counter.commit(delta);
+            if (!writeBehind) {
+                counter.endCommitted();
+                catalogVersion.advance();
+            }
+            seatListener.accept(flightId);
+        });
+    }
+
+    /**
+     * Run a statement on the flights row and return whether it matched. The
+     * statement counts as an uncommitted change from before it runs; one that
+     * matched nothing, or failed, is ended at once, while one that matched is
+     * ended by the hooks changed (or touch) registers.
+     */
+    private boolean update(SeatCounter counter, IntSupplier statement) {
+        counter.begin();
+        boolean updated = false;
+        try {
+            updated = statement.getAsInt() > 0;
+        } finally {
+            if (!updated) {
+                counter.endRolledBack();
+            }
+        }
+        return updated;
+    }
+
+    private SeatCounter counterFor(Long flightId) {
+        SeatCounter counter = counters.get(flightId);
+        if (counter != null) {
+            return counter;
+        }
+        // Flight created by another path since startup - load it once
+        return flightRepository.findById(flightId)
+                .map(flight -> counters.computeIfAbsent(flightId, id -> new SeatCounter(flight)))
+                .orElse(null);
+    }
+
+    /**
+     * Lock-free seat counter for one flight.
+     */
+    private static final class SeatCounter {
+
+        private final AtomicInteger available;
+        // Available seats counting committed changes only
+        private final AtomicInteger committed;
+        private volatile int capacity;
+        // Row revision the committed count reflects, and this instance's statements
+        // on the row not yet committed or rolled back; both guarded by this
+        private long revision;
+        private int uncommitted;
+
+        SeatCounter(Flight flight) {
+            this(flight.getAvailableSeats(), flight.getCapacity(), flight.getRevision());
+        }
+
+        SeatCounter(int available, int capacity, long revision) {
+            this.available = new AtomicInteger(available);
+            this.committed = new AtomicInteger(available);
+            this.capacity = capacity;
+            this.revision = revision;
+        }
+
+        synchronized void begin() {
+            uncommitted++;
+        }
+
+        /**
+         * End a statement that committed; the row's revision moved one past ours.
+         */
+        synchronized void endCommitted() {
+            uncommitted--;
+            revision++;
+        }
+
+        synchronized void endRolledBack() {
+            uncommitted--;
+        }
+
+        int committed() {
+            return committed.get();
+        }
+
+        /**
+         * Apply a committed change to the committed count, within 0..capacity.
+         */
+        void commit(int delta) {
+            committed.updateAndGet(current -> Math.max(0, Math.min(capacity, current + delta)));
+        }
+
+        /**
+         * Add (or with a negative delta, take) seats if the result stays within 0..capacity.
+         */
+        boolean tryAdd(int delta) {
+            int current;
+            int next;
+            do {
+                current = available.get();
+                next = current + delta;
+                if (next < 0 || next > capacity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, next));
+            return true;
+        }
+
+        /**
+         * Overwrite the counts and capacity with a committed row, if it is newer than
+         * what the counter reflects and no local change is in flight.
+         */
+        synchronized Refresh refresh(Flight row) {
+            if (uncommitted > 0) {
+                return Refresh.DEFERRED;
+            }
+            if (row.getRevision() <= revision) {
+                return Refresh.UNCHANGED;
+            }
+            revision = row.getRevision();
+            boolean changed = available.get() != row.getAvailableSeats()
+                    || committed.get() != row.getAvailableSeats() || capacity != row.getCapacity();
+            capacity = row.getCapacity();
+            available.set(row.getAvailableSeats());
+            committed.set(row.getAvailableSeats());
+            return changed ? Refresh.UPDATED : Refresh.UNCHANGED;
+        }
+
+        /**
+         * Change the capacity and shift available seats by the same amount, clamped
+         * to 0..capacity. Used to mirror a change already made in the database.
+         */
+        synchronized void resize(int newCapacity) {
+            int delta = newCapacity - capacity;
+            capacity = newCapacity;
+            available.updateAndGet(current -> Math.max(0, Math.min(newCapacity, current + delta)));
+        }
+
+        /**
+         * Change the capacity and shift available seats by the same amount, unless
+         * that would leave fewer than zero seats.
+         */
+        synchronized boolean tryResize(int newCapacity) {
+            int delta = newCapacity - capacity;
+            if (delta > 0) {
+                // Raise the bound before adding seats, so a concurrent release still fits
+                capacity = newCapacity;
+                available.addAndGet(delta);
+                return true;
+            }
+            int current;
+            do {
+                current = available.get();
+                if (current + delta < 0) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current + delta));
+            capacity = newCapacity;
+            return true;
+        }
+    }
+
+    /**
+     * Outcome of refreshing a counter from a flights row.
+     */
+    public enum Refresh {
+        UPDATED, UNCHANGED, DEFERRED
+    }
+}
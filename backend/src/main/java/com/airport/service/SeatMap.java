@@ -0,0 +1,319 @@
+package com.airport.service;
+
+import com.airport.model.Passenger.SeatPreference;
+
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Occupied-seat bitmap for one flight.
+ *
+ * Seats are numbered row by row ("1A", "1B", ... "12F") from a cabin layout
+ * derived from the flight capacity. Bit i is set when seat i is taken; bits are
+ * claimed and cleared with compare-and-set, so claim and release are O(1) and
+ * only ever wait for a resize. Automatic assignment masks each 64-seat word with a precomputed
+ * window/aisle/middle mask, so finding a matching free seat is one pass over
+ * capacity / 64 words.
+ *
+ * A capacity change resizes the map in place under a write lock that claims,
+ * assigns and releases share, so seats taken by transactions still in flight
+ * survive it. The layout follows the capacity (up to 100 seats is 4-abreast,
+ * more is 6-abreast), so a change that would switch layout is refused while any
+ * seat is taken: it would renumber seats already issued.
+ */
+public class SeatMap {
+
+    private static final char[] LETTERS = {'A', 'B', 'C', 'D', 'E', 'F'};
+
+    // Column positions per layout: W = window, A = aisle, M = middle
+    private static final String NARROW_BODY = "WAAW";     // AB CD
+    private static final String MAINLINE = "WMAAMW";      // ABC DEF
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock shared = lock.readLock();
+    private final Lock exclusive = lock.writeLock();
+
+    // Replaced together by resize, under the write lock
+    private Cabin cabin;
+    private AtomicLongArray occupied;
+
+    public SeatMap(int capacity) {
+        this.cabin = new Cabin(capacity);
+        this.occupied = new AtomicLongArray(cabin.words());
+    }
+
+    /**
+     * Change the capacity, keeping every seat taken. Returns false, leaving the map
+     * as it was, if that would switch layout while seats are taken or drop a seat
+     * that is taken.
+     */
+    public boolean resize(int capacity) {
+        exclusive.lock();
+        try {
+            Cabin resized = new Cabin(capacity);
+            int taken = occupiedCount();
+            if (taken > 0 && !resized.columnTypes.equals(cabin.columnTypes)) {
+                return false;
+            }
+            AtomicLongArray copy = new AtomicLongArray(resized.words());
+            int copied = 0;
+            for (int word = 0; word < copy.length() && word < occupied.length(); word++) {
+                long bits = occupied.get(word) & resized.validMask[word];
+                copy.set(word, bits);
+                copied += Long.bitCount(bits);
+            }
+            if (copied != taken) {
+                return false;
+            }
+            cabin = resized;
+            occupied = copy;
+            return true;
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    /**
+     * Claim a specific seat. Returns false if it is already taken.
+     * Throws if the seat number does not exist on this flight.
+     */
+    public boolean claim(String seatNumber) {
+        shared.lock();
+        try {
+            int seat = indexOf(seatNumber);
+            if (seat < 0) {
+                throw new RuntimeException("Invalid seat number: " + seatNumber);
+            }
+            return setBit(seat);
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Assign the first free seat matching the preference, falling back to any
+     * free seat. Returns the seat number, or null if the flight is full.
+     */
+    public String assign(SeatPreference preference) {
+        shared.lock();
+        try {
+            long[] mask = cabin.preferenceMasks.get(preference != null ? preference : SeatPreference.NO_PREFERENCE);
+            int seat = claimFirstFree(mask);
+            if (seat < 0 && mask != cabin.validMask) {
+                seat = claimFirstFree(cabin.validMask);
+            }
+            return seat >= 0 ? seatNumberOf(seat) : null;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Release a seat. Unknown seat numbers are ignored.
+     */
+    public void release(String seatNumber) {
+        shared.lock();
+        try {
+            int seat = indexOf(seatNumber);
+            if (seat >= 0) {
+                long bit = 1L << (seat & 63);
+                int word = seat >>> 6;
+                long current;
+                do {
+                    current = occupied.get(word);
+                } while ((current & bit) != 0 && !occupied.compareAndSet(word, current, current & ~bit));
+            }
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    public boolean isOccupied(String seatNumber) {
+        shared.lock();
+        try {
+            int seat = indexOf(seatNumber);
+            return seat >= 0 && (occupied.get(seat >>> 6) & (1L << (seat & 63))) != 0;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        shared.lock();
+        try {
+            return cabin.capacity;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    public int getRows() {
+        shared.lock();
+        try {
+            return (cabin.capacity + cabin.seatsPerRow - 1) / cabin.seatsPerRow;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Seat letters with an aisle gap, e.g. "ABC DEF".
+     */
+    public String getLayout() {
+        shared.lock();
+        try {
+            String letters = new String(LETTERS, 0, cabin.seatsPerRow);
+            int half = cabin.seatsPerRow / 2;
+            return letters.substring(0, half) + " " + letters.substring(half);
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    public int getOccupiedCount() {
+        shared.lock();
+        try {
+            return occupiedCount();
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Occupied bitmap as URL-safe Base64, seat 0 in the lowest bit of the first byte.
+     */
+    public String encode() {
+        shared.lock();
+        try {
+            byte[] bytes = new byte[(cabin.capacity + 7) / 8];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (occupied.get(i >>> 3) >>> ((i & 7) * 8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Whether the seat number exists on this flight.
+     */
+    public boolean isSeat(String seatNumber) {
+        shared.lock();
+        try {
+            return indexOf(seatNumber) >= 0;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Seat index for a seat number like "12A", or -1 if it is not on this flight.
+     * Callers hold the lock, shared or exclusive.
+     */
+    private int indexOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+        String normalized = seatNumber.trim().toUpperCase();
+        int column = normalized.charAt(normalized.length() - 1) - 'A';
+        int seatsPerRow = cabin.seatsPerRow;
+        if (column < 0 || column >= seatsPerRow) {
+            return -1;
+        }
+        int row;
+        try {
+            row = Integer.parseInt(normalized.substring(0, normalized.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int seat = (row - 1) * seatsPerRow + column;
+        return row >= 1 && seat < cabin.capacity ? seat : -1;
+    }
+
+    private String seatNumberOf(int seat) {
+        int seatsPerRow = cabin.seatsPerRow;
+        return (seat / seatsPerRow + 1) + String.valueOf(LETTERS[seat % seatsPerRow]);
+    }
+
+    private int occupiedCount() {
+        int count = 0;
+        for (int i = 0; i < occupied.length(); i++) {
+            count += Long.bitCount(occupied.get(i));
+        }
+        return count;
+    }
+
+    private boolean setBit(int seat) {
+        long bit = 1L << (seat & 63);
+        int word = seat >>> 6;
+        long current;
+        do {
+            current = occupied.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!occupied.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    private int claimFirstFree(long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            long free;
+            while ((free = ~occupied.get(word) & mask[word]) != 0) {
+                int seat = (word << 6) + Long.numberOfTrailingZeros(free);
+                if (setBit(seat)) {
+                    return seat;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Seat layout and assignment masks for one capacity.
+     */
+    private static final class Cabin {
+
+        final int capacity;
+        final String columnTypes;
+        final int seatsPerRow;
+        final long[] validMask;
+        final Map<SeatPreference, long[]> preferenceMasks = new EnumMap<>(SeatPreference.class);
+
+        Cabin(int capacity) {
+            this.capacity = capacity;
+            this.columnTypes = capacity <= 100 ? NARROW_BODY : MAINLINE;
+            this.seatsPerRow = columnTypes.length();
+
+            int words = words();
+            this.validMask = new long[words];
+            long[] window = new long[words];
+            long[] aisle = new long[words];
+            long[] middle = new long[words];
+
+            for (int seat = 0; seat < capacity; seat++) {
+                long bit = 1L << (seat & 63);
+                int word = seat >>> 6;
+                validMask[word] |= bit;
+                switch (columnTypes.charAt(seat % seatsPerRow)) {
+                    case 'W' -> window[word] |= bit;
+                    case 'A' -> aisle[word] |= bit;
+                    default -> middle[word] |= bit;
+                }
+            }
+            preferenceMasks.put(SeatPreference.WINDOW, window);
+            preferenceMasks.put(SeatPreference.AISLE, aisle);
+            preferenceMasks.put(SeatPreference.MIDDLE, middle);
+            preferenceMasks.put(SeatPreference.NO_PREFERENCE, validMask);
+        }
+
+        int words() {
+            return (capacity + 63) / 64;
+        }
+    }
+}
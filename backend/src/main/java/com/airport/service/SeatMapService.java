@@ -0,0 +1,141 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Passenger.SeatPreference;
+import com.airport.repository.BookingRepository;
+import com.airport.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seat map service - keeps one occupied-seat bitmap per flight.
+ *
+ * Maps are built on first use from the flight capacity and the seat numbers of
+ * bookings that hold a seat, then kept up to date by claim/assign/release.
+ * Seat changes made inside a transaction are undone if it rolls back.
+ *
+ * A map only knows this instance's claims. The bookings table has a unique key on
+ * (flight_id, held_seat), so a seat another instance sold is refused on insert;
+ * the booking then rolls back and the map picks up the seats of committed
+ * bookings before its next use, keeping the claims of open transactions.
+ */
+@Service
+public class SeatMapService {
+
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+
+    private final ConcurrentHashMap<Long, SeatMap> seatMaps = new ConcurrentHashMap<>();
+    // Flights whose map missed a seat sold elsewhere
+    private final Set<Long> staleFlights = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public SeatMapService(FlightRepository flightRepository,
+                          BookingRepository bookingRepository) {
+        this.flightRepository = flightRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Get the seat map for a flight, building it if needed.
+     */
+    public Optional<SeatMap> getSeatMap(Long flightId) {
+        SeatMap seatMap = seatMaps.get(flightId);
+        if (seatMap != null) {
+            if (staleFlights.remove(flightId)) {
+                claimHeldSeats(flightId, seatMap);
+            }
+            return Optional.of(seatMap);
+        }
+        return flightRepository.findById(flightId)
+                .map(flight -> seatMaps.computeIfAbsent(flightId, id -> {
+                    SeatMap built = new SeatMap(flight.getCapacity());
+                    claimHeldSeats(id, built);
+                    return built;
+                }));
+    }
+
+    /**
+     * Claim the requested seat, or assign one by preference when no seat is requested.
+     * Returns the seat number taken.
+     */
+    public String claimOrAssign(Long flightId, String seatNumber, SeatPreference preference) {
+        SeatMap seatMap = getSeatMap(flightId)
+                .orElseThrow(() -> new RuntimeException("Flight not found"));
+
+        String seat;
+        if (seatNumber != null && !seatNumber.isBlank()) {
+            seat = seatNumber.trim().toUpperCase();
+            if (!seatMap.claim(seat)) {
+                throw new RuntimeException("Seat " + seat + " is already taken");
+            }
+        } else {
+            seat = seatMap.assign(preference);
+            if (seat == null) {
+                throw new RuntimeException("No available seats on this flight");
+            }
+        }
+        TransactionHooks.onRollback(() -> seatMap.release(seat));
+        return seat;
+    }
+
+    /**
+     * Release a seat held by a cancelled booking.
+     */
+    public void release(Long flightId, String seatNumber) {
+        SeatMap seatMap = seatMaps.get(flightId);
+        if (seatMap != null && seatMap.isOccupied(seatNumber)) {
+            seatMap.release(seatNumber);
+            TransactionHooks.onRollback(() -> seatMap.claim(seatNumber));
+        }
+    }
+
+    /**
+     * Resize a flight's map to a new capacity, building it first if needed. Returns
+     * false if that would renumber or drop a seat that is taken (see SeatMap#resize).
+     */
+    public boolean resize(Long flightId, int capacity) {
+        SeatMap seatMap = getSeatMap(flightId)
+                .orElseThrow(() -> new RuntimeException("Flight not found"));
+        int previous = seatMap.getCapacity();
+        if (!seatMap.resize(capacity)) {
+            return false;
+        }
+        TransactionHooks.onRollback(() -> {
+            if (!seatMap.resize(previous)) {
+                seatMaps.remove(flightId, seatMap);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Note that the database refused a seat this map thought free, sold by another
+     * instance. Once the transaction has rolled back, the map takes the seats of
+     * committed bookings on next use.
+     */
+    public void seatTakenElsewhere(Long flightId) {
+        TransactionHooks.onRollback(() -> staleFlights.add(flightId));
+    }
+
+    /**
+     * Drop a flight's map; it is rebuilt from committed bookings on next use.
+     */
+    public void evict(Long flightId) {
+        seatMaps.remove(flightId);
+        staleFlights.remove(flightId);
+    }
+
+    private void claimHeldSeats(Long flightId, SeatMap seatMap) {
+        bookingRepository.findSeatNumbersByFlight(flightId, Booking.SEAT_HOLDING_STATUSES)
+                .forEach(seat -> {
+                    if (seatMap.isSeat(seat)) {
+                        seatMap.claim(seat);
+                    }
+                });
+    }
+}
@@ -0,0 +1,328 @@
+package com.airport.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seat stream service - pushes live seat counts to Server-Sent Events subscribers.
+ *
+ * Each watched flight has a channel holding its subscribers. A committed seat
+ * change only marks the channel and schedules one fan-out task on a small shared
+ * scheduler; the task reads the latest committed count once and queues it for every
+ * subscriber of the flight, so changes in between are coalesced (latest value wins)
+ * and a channel fans out at most airport.seat-stream.max-updates-per-second times a
+ * second. Fan-outs for one flight never overlap.
+ *
+ * Nothing on the scheduler writes to a connection. Each subscriber has a small
+ * bounded queue drained by a separate sender pool, one drain per subscriber at a
+ * time. A subscriber whose queue fills up, or whose current write has been stuck
+ * longer than airport.seat-stream.send-timeout-seconds, is dropped and its stream
+ * closed, so a slow client ties up at most one sender thread, until its write
+ * fails, and never the fan-out or other subscribers. Idle subscribers cost an open
+ * connection and a few objects, no thread; a periodic comment keeps proxies from
+ * closing them.
+ *
+ * Events are named "seats" with data {"flightId":1,"availableSeats":42}.
+ */
+@Service
+public class SeatStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatStreamService.class);
+
+    private final SeatInventoryService seatInventoryService;
+    private final long minIntervalNanos;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxFlightsPerSubscriber;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public SeatStreamService(SeatInventoryService seatInventoryService,
+                             @Value("${airport.seat-stream.max-updates-per-second:2}") int maxUpdatesPerSecond,
+                             @Value("${airport.seat-stream.timeout-minutes:30}") long timeoutMinutes,
+                             @Value("${airport.seat-stream.heartbeat-seconds:20}") long heartbeatSeconds,
+                             @Value("${airport.seat-stream.max-subscribers:50000}") int maxSubscribers,
+                             @Value("${airport.seat-stream.max-flights-per-subscriber:20}") int maxFlightsPerSubscriber,
+                             @Value("${airport.seat-stream.threads:2}") int threads,
+                             @Value("${airport.seat-stream.send-threads:8}") int sendThreads,
+                             @Value("${airport.seat-stream.subscriber-queue:16}") int queueCapacity,
+                             @Value("${airport.seat-stream.send-timeout-seconds:10}") long sendTimeoutSeconds) {
+        this.seatInventoryService = seatInventoryService;
+        this.minIntervalNanos = TimeUnit.SECONDS.toNanos(1) / maxUpdatesPerSecond;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.maxFlightsPerSubscriber = maxFlightsPerSubscriber;
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        this.scheduler = Executors.newScheduledThreadPool(threads, daemonThreads("seat-stream"));
+        this.sender = Executors.newFixedThreadPool(sendThreads, daemonThreads("seat-stream-send"));
+        this.scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        this.scheduler.scheduleWithFixedDelay(this::dropStalled, 1, 1, TimeUnit.SECONDS);
+        seatInventoryService.setSeatListener(this::seatsChanged);
+    }
+
+    /**
+     * Open a stream of seat counts for the given flights. The current count of each
+     * flight is sent first, then every change.
+     */
+    public SseEmitter subscribe(List<Long> flightIds) {
+        Set<Long> ids = new LinkedHashSet<>(flightIds);
+        if (ids.isEmpty() || ids.size() > maxFlightsPerSubscriber) {
+            throw new RuntimeException("Subscribe to between 1 and " + maxFlightsPerSubscriber + " flights");
+        }
+        for (Long id : ids) {
+            if (seatInventoryService.getAvailableSeats(id) < 0) {
+                throw new RuntimeException("Flight not found with id: " + id);
+            }
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Too many seat stream subscribers; try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, List.copyOf(ids));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        for (Long id : ids) {
+            channels.compute(id, (key, channel) -> {
+                Channel result = channel != null ? channel : new Channel(key);
+                result.subscribers.add(subscriber);
+                return result;
+            }).sendCurrent(subscriber);
+        }
+        return emitter;
+    }
+
+    public StreamStats getStats() {
+        return new StreamStats(subscribers.size(), channels.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void seatsChanged(long flightId) {
+        Channel channel = channels.get(flightId);
+        if (channel != null) {
+            channel.changed();
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Long id : subscriber.flightIds) {
+            channels.computeIfPresent(id, (key, channel) -> {
+                channel.subscribers.remove(subscriber);
+                return channel.subscribers.isEmpty() ? null : channel;
+            });
+        }
+    }
+
+    private void heartbeat() {
+        Set<DataWithMediaType> comment = SseEmitter.event().comment("keep-alive").build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(comment);
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                subscriber.drop("write stalled");
+            }
+        }
+    }
+
+    /**
+     * Subscribers of one flight and the state of its throttled fan-out.
+     */
+    private final class Channel {
+
+        final long flightId;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile long lastFanOut = System.nanoTime() - minIntervalNanos;
+        // Only touched by fanOut, which is synchronized
+        int lastSeats = -1;
+
+        Channel(long flightId) {
+            this.flightId = flightId;
+        }
+
+        void changed() {
+            // Runs on the committing thread, so it never waits for a fan-out in progress
+            if (scheduled.compareAndSet(false, true)) {
+                long delay = Math.max(0, lastFanOut + minIntervalNanos - System.nanoTime());
+                try {
+                    scheduler.schedule(this::fanOut, delay, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
+            }
+        }
+
+        synchronized void fanOut() {
+            // Clear first, so a change during the fan-out schedules the next one
+            scheduled.set(false);
+            lastFanOut = System.nanoTime();
+            int seats = seatInventoryService.getCommittedSeats(flightId);
+            if (seats < 0 || seats == lastSeats) {
+                return;
+            }
+            lastSeats = seats;
+            Set<DataWithMediaType> event = seatEvent(flightId, seats);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.send(event);
+            }
+        }
+
+        /**
+         * Send the current count to a new subscriber. Synchronized with fanOut so
+         * it cannot arrive after a newer count.
+         */
+        synchronized void sendCurrent(Subscriber subscriber) {
+            int seats = seatInventoryService.getCommittedSeats(flightId);
+            if (seats >= 0) {
+                subscriber.send(seatEvent(flightId, seats));
+            }
+        }
+    }
+
+    // Built once per fan-out and shared by all subscribers
+    private static Set<DataWithMediaType> seatEvent(long flightId, int seats) {
+        return SseEmitter.event()
+                .name("seats")
+                .data("{\"flightId\":" + flightId + ",\"availableSeats\":" + seats + "}")
+                .build();
+    }
+
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+        final List<Long> flightIds;
+        final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the write in progress started, 0 when idle
+        volatile long sendStarted;
+        volatile boolean dropped;
+
+        Subscriber(SseEmitter emitter, List<Long> flightIds) {
+            this.emitter = emitter;
+            this.flightIds = flightIds;
+        }
+
+        /**
+         * Queue an event without blocking; drops the subscriber if its queue is full.
+         */
+        void send(Set<DataWithMediaType> event) {
+            if (dropped) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                drop("queue full");
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
+            }
+        }
+
+        /**
+         * Stop queueing events for a client that cannot keep up and close its stream.
+         * Whoever holds the draining flag closes it: this thread if the subscriber is
+         * idle, otherwise the sender once its current write returns, so the caller
+         * never waits on a stuck connection.
+         */
+        void drop(String reason) {
+            if (dropped) {
+                return;
+            }
+            dropped = true;
+            log.debug("Dropping slow seat stream subscriber: {}", reason);
+            unsubscribe(this);
+            queue.clear();
+            if (draining.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        // Runs on the sender pool while holding the draining flag
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while (!dropped && (event = queue.poll()) != null) {
+                    sendStarted = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away or the stream already completed
+                        log.debug("Dropping seat stream subscriber: {}", e.getMessage());
+                        dropped = true;
+                        unsubscribe(this);
+                        emitter.completeWithError(e);
+                        return;
+                    } finally {
+                        sendStarted = 0;
+                    }
+                }
+                if (dropped) {
+                    // Dropped while writing; the flag stays set so nobody else closes it
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+                // An event queued after the last poll but before the flag cleared is ours to send
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+
+    public record StreamStats(int subscribers, int flights) {}
+}
@@ -0,0 +1,139 @@
+package com.airport.service;
+
+import com.airport.model.RevokedToken;
+import com.airport.repository.RevokedTokenRepository;
+import com.airport.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token revocation service - answers "is this access token revoked?" on every request.
+ *
+ * Revoked token ids live in a Bloom filter in front of an exact in-memory map.
+ * Almost every token was never revoked, and the filter clears it with a few bit
+ * reads and no lock; only a filter hit consults the map. The revoked_tokens table
+ * is the source of truth: it is loaded at startup, polled for revocations made by
+ * other instances, and purged of expired rows, at which point the filter is
+ * rebuilt, since a Bloom filter cannot forget.
+ */
+@Service
+public class TokenRevocationService {
+
+    // How far back each poll looks, so rows committed late by other instances are not missed
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    // Token id -> expiry in epoch millis
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${airport.token-revocation.expected-revocations:10000}") int expectedRevocations,
+                                  @Value("${airport.token-revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastSync = now;
+        rebuildFilter();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        checks.increment();
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        filterHits.increment();
+        Long expiresAt = revoked.get(tokenId);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        rejected.increment();
+        return true;
+    }
+
+    /**
+     * Revoke an access token until it expires. It is refused by this instance at
+     * once, even if the surrounding transaction later rolls back, and by other
+     * instances from their next poll.
+     */
+    public void revoke(String tokenId, LocalDateTime expiresAt) {
+        if (!expiresAt.isAfter(LocalDateTime.now()) || revoked.containsKey(tokenId)) {
+            return;
+        }
+        remember(new RevokedToken(tokenId, expiresAt));
+        if (!revokedTokenRepository.existsByTokenId(tokenId)) {
+            revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+        }
+    }
+
+    /**
+     * Pick up revocations made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${airport.token-revocation.sync-interval-ms:10000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> rows = revokedTokenRepository.findByRevokedAtAfter(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS));
+        rows.forEach(this::remember);
+        lastSync = now;
+    }
+
+    /**
+     * Delete expired rows, forget expired ids and rebuild the filter without them.
+     */
+    @Scheduled(fixedDelayString = "${airport.token-revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildFilter();
+    }
+
+    public RevocationStats getStats() {
+        return new RevocationStats(revoked.size(), checks.sum(), filterHits.sum(), rejected.sum());
+    }
+
+    // Guarded with rebuildFilter, so an id added during a rebuild lands in the new filter
+    private synchronized void remember(RevokedToken row) {
+        long expiresAt = row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        revoked.put(row.getTokenId(), expiresAt);
+        filter.add(row.getTokenId());
+    }
+
+    private synchronized void rebuildFilter() {
+        // Leave room to grow, so the false positive rate holds until the next rebuild
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    /**
+     * Revocation metrics; filterHits counts checks that needed the exact map and
+     * rejected those that found a revoked token.
+     */
+    public record RevocationStats(int revoked, long checks, long filterHits, long rejected) {}
+}
@@ -0,0 +1,60 @@
+package com.airport.service;
+
+import com.airport.model.User;
+import com.airport.repository.UserRepository;
+import com.airport.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * User cache service - read-through cache of user accounts by id.
+ *
+ * Requests authenticate from the token's claims alone; this cache serves the
+ * paths that need the account itself (discounts, miles, profile). Entries live
+ * for a short time and are evicted after a profile change, an upgrade or a miles
+ * update commits. Cached users are detached and shared between requests, so
+ * callers must not modify them; change the managed entity instead.
+ */
+@Service
+public class UserCacheService {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, User> usersById;
+
+    @Autowired
+    public UserCacheService(UserRepository userRepository,
+                            @Value("${airport.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${airport.user-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.usersById = new BoundedCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public Optional<User> getById(Long id) {
+        User cached = usersById.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(user -> usersById.put(id, user));
+        return loaded;
+    }
+
+    public void evict(Long id) {
+        usersById.remove(id);
+    }
+
+    /**
+     * Evict once the current transaction commits, or now if there is none.
+     */
+    public void evictAfterCommit(Long id) {
+        TransactionHooks.afterCommit(() -> usersById.remove(id));
+    }
+
+    public BoundedCache.Stats getStats() {
+        return usersById.stats();
+    }
+}
@@ -0,0 +1,74 @@
+package com.airport.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking reference generator - unique references without locks or database round trips.
+ *
+ * Each reference packs a 63-bit id: 41 bits of milliseconds since 2024-01-01,
+ * a 10-bit node id and a 12-bit per-node sequence. Time and sequence share one
+ * AtomicLong advanced with compare-and-set; when a millisecond's 4096 sequence
+ * numbers run out, or the clock steps back, the generator borrows from the next
+ * millisecond instead of blocking. Ids are written as 13 Crockford base32
+ * characters (no I, L, O or U) after the "TXR" prefix, e.g. "TXR0K2M4Q7ZC8B1N".
+ *
+ * References are unique across instances as long as every instance has its own
+ * node id.
+ */
+public class BookingReferenceGenerator {
+
+    public static final String PREFIX = "TXR";
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int LENGTH = 13; // ceil(63 / 5)
+
+    private final long node;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public BookingReferenceGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.node = nodeId;
+    }
+
+    /**
+     * Next reference, e.g. "TXR0K2M4Q7ZC8B1N".
+     */
+    public String next() {
+        return PREFIX + encode(nextId());
+    }
+
+    /**
+     * Next raw 63-bit id.
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long last;
+        long next;
+        do {
+            last = lastTimeAndSequence.get();
+            // A new millisecond restarts the sequence; otherwise keep counting past the last id
+            next = now > last ? now : last + 1;
+        } while (!lastTimeAndSequence.compareAndSet(last, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
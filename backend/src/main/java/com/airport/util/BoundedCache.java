@@ -0,0 +1,157 @@
+package com.airport.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache with per-entry time to live.
+ *
+ * Keys are spread by hash over up to 16 segments, each an access-ordered map with
+ * its own lock and an equal share of the size limit, so concurrent lookups of
+ * different keys rarely contend even though every read reorders its segment.
+ * Eviction is least recently used within a segment, which approximates LRU for
+ * the whole cache. Expired entries are dropped when read and swept from the cold
+ * end of a segment on every write to it, so memory stays bounded without a
+ * cleanup thread.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Smaller caches get fewer segments, so eviction stays close to true LRU
+    private static final int MIN_SEGMENT_SIZE = 32;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Shares add up to exactly maxSize
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * Cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                segment.entries.remove(key);
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            segment.sweepExpired(now);
+            segment.entries.put(key, new Entry<>(value, now + ttlNanos));
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public Stats stats() {
+        return new Stats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * One lock and one access-ordered map holding a share of the entries.
+     */
+    private static final class Segment<K, V> {
+
+        final LinkedHashMap<K, Entry<V>> entries;
+        final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.evictions = evictions;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void sweepExpired(long now) {
+            // Access order puts the least recently used entries first; stop at the first live one
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (!iterator.next().isExpired(now)) {
+                    break;
+                }
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Cache size and hit/miss/eviction counters since startup.
+     */
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions) {}
+}
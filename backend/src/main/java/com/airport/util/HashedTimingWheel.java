@@ -0,0 +1,208 @@
+package com.airport.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel - schedules many short-lived timeouts at O(1) cost each.
+ *
+ * Time is divided into ticks; a timeout lands in bucket (deadline tick mod wheel size)
+ * with a count of full rotations still to wait. One worker thread advances the wheel
+ * once per tick and fires the due timeouts of a single bucket, so scheduling and
+ * cancelling never take a lock and there is no per-timeout thread or task.
+ *
+ * Timeouts fire on the worker thread with tick precision; tasks should only hand
+ * work off to another executor.
+ */
+public class HashedTimingWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeTimeouts = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Only touched by the worker thread
+    private long tick;
+
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new Bucket[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedule a task to run once after the delay.
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, deadline);
+        activeTimeouts.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of scheduled timeouts that have neither fired nor been cancelled.
+     */
+    public int size() {
+        return activeTimeouts.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            // Already overdue timeouts fire on the current tick
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle to a scheduled task.
+     */
+    public final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Bucket links, only touched by the worker thread
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout. Returns false if it already fired or was cancelled.
+         * The entry is unlinked lazily when the wheel next reaches its bucket.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                activeTimeouts.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public long remaining(TimeUnit unit) {
+            return unit.convert(deadline - (System.nanoTime() - startNanos), TimeUnit.NANOSECONDS);
+        }
+
+        private void fire() {
+            if (state.compareAndSet(WAITING, EXPIRED)) {
+                activeTimeouts.decrementAndGet();
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts sharing a slot.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    try {
+                        timeout.fire();
+                    } catch (RuntimeException e) {
+                        // A failing task must not stop the wheel
+                        log.error("Timing wheel task failed", e);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.next = timeout.prev = null;
+        }
+    }
+}
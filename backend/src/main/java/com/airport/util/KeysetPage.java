@@ -0,0 +1,70 @@
+package com.airport.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list ordered by id.
+ *
+ * The next cursor is an opaque token holding the list name and the last id on
+ * the page; the following page is read with "id > last id", so pages stay
+ * stable while rows are added and cost the same however deep the client goes.
+ * nextCursor is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Build a page from up to size + 1 rows read after the cursor; the extra row
+     * only signals that another page exists.
+     */
+    public static <T> KeysetPage<T> of(String list, List<T> rows, int size, Function<T, Long> idOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, encodeCursor(list, idOf.apply(items.get(size - 1))));
+    }
+
+    /**
+     * Requested page size, or the default when none was given. Throws if out of range.
+     */
+    public static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1 || requested > maxSize) {
+            throw new RuntimeException("Page size must be between 1 and " + maxSize);
+        }
+        return requested;
+    }
+
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public static String encodeCursor(String list, long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((list + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Last id from a cursor, or 0 for the first page (null or blank cursor).
+     * Throws if the cursor is malformed or belongs to another list.
+     */
+    public static long decodeCursor(String list, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(list + ":")) {
+                return Long.parseLong(decoded.substring(list.length() + 1));
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the invalid cursor error; NumberFormatException is an IllegalArgumentException
+        }
+        throw new RuntimeException("Invalid cursor");
+    }
+}
@@ -0,0 +1,114 @@
+package com.airport.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keyed token-bucket rate limiter.
+ *
+ * Each key holds one long: the time its bucket will be full again (the generic
+ * cell rate algorithm). A request is allowed if that time is less than one period
+ * ahead and then moves it on by one emission interval, in a single CAS, so the
+ * hot path takes no lock and allocates nothing for a known key. Keys whose bucket
+ * has refilled carry no state worth keeping and are dropped by evictIdle().
+ *
+ * A limit is written "count/unit", e.g. "10/m": bursts of up to 10 requests and
+ * 10 a minute sustained. Units are s, m and h.
+ */
+public class RateLimiter {
+
+    private static final Pattern LIMIT = Pattern.compile("\\s*(\\d+)\\s*/\\s*([smh])\\s*");
+
+    private final String limit;
+    private final long emissionIntervalNanos;
+    private final long periodNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public RateLimiter(int count, Duration period, int maxKeys) {
+        if (count <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit must allow at least one request per period");
+        }
+        this.limit = count + " per " + period.toSeconds() + "s";
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = periodNanos / count;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Parse a "count/unit" limit, e.g. "10/m".
+     */
+    public static RateLimiter parse(String limit, int maxKeys) {
+        Matcher matcher = LIMIT.matcher(limit);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid rate limit '" + limit + "'; use count/unit, e.g. 10/m");
+        }
+        Duration period = switch (matcher.group(2)) {
+            case "s" -> Duration.ofSeconds(1);
+            case "m" -> Duration.ofMinutes(1);
+            default -> Duration.ofHours(1);
+        };
+        return new RateLimiter(Integer.parseInt(matcher.group(1)), period, maxKeys);
+    }
+
+    /**
+     * Take a token for the key. Returns 0 if allowed, otherwise the nanoseconds
+     * until the next token.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket == null) {
+            if (fullAt.size() >= maxKeys) {
+                evictIdle();
+                if (fullAt.size() >= maxKeys) {
+                    // Fail open rather than lock out new clients; visible as "untracked"
+                    untracked.increment();
+                    return 0;
+                }
+            }
+            bucket = fullAt.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current - now, 0) + now + emissionIntervalNanos;
+            long wait = next - periodNanos - now;
+            if (wait > 0) {
+                throttled.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop keys whose bucket is full again. A request racing with the removal
+     * may update a dropped bucket; the key then starts over with a full one,
+     * which is what it had anyway.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        fullAt.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public Stats stats() {
+        return new Stats(limit, fullAt.size(), allowed.sum(), throttled.sum(), untracked.sum());
+    }
+
+    /**
+     * Tracked keys and request counters since startup; untracked counts requests
+     * let through because the key table was full.
+     */
+    public record Stats(String limit, int keys, long allowed, long throttled, long untracked) {}
+}
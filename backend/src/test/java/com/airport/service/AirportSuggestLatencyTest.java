@@ -0,0 +1,108 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Suggestions over a large synthetic schedule - 2,000 cities and 100,000 flights,
+ * far more than any regional catalog - stay under a millisecond at p99, for
+ * prefix queries and for typo queries that fall back to fuzzy matching.
+ *
+ * Each query is timed over several rounds and keeps its fastest time, so a
+ * thread preempted by the scheduler or another test's background work does not
+ * count as a slow query; a query that is slow every time still does.
+ */
+class AirportSuggestLatencyTest {
+
+    private static final String[] SYLLABLES = {"san", "an", "to", "ni", "o", "dal", "las", "hou", "ston",
+            "el", "pa", "so", "ama", "ril", "lo", "lub", "bock", "wa", "co", "ty", "ler", "mid", "land", "port"};
+    private static final int CITIES = 2_000;
+    private static final int FLIGHTS = 100_000;
+    private static final int QUERIES = 1_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final long P99_LIMIT_NANOS = 1_000_000;
+
+    @Test
+    void p99IsUnderAMillisecondOnALargeSchedule() {
+        Random random = new Random(16);
+        List<String> cities = new ArrayList<>(CITIES);
+        while (cities.size() < CITIES) {
+            String name = cityName(random);
+            if (!cities.contains(name)) {
+                cities.add(name);
+            }
+        }
+        List<Flight> flights = new ArrayList<>(FLIGHTS);
+        for (int i = 0; i < FLIGHTS; i++) {
+            flights.add(new Flight("SG" + i, cities.get(random.nextInt(CITIES)), cities.get(random.nextInt(CITIES)),
+                    LocalTime.of(random.nextInt(24), 0), 100, 50.0));
+        }
+        RouteIndexService routeIndexService = mock(RouteIndexService.class);
+        when(routeIndexService.cities()).thenReturn(new CityIndex(flights));
+        AirportSuggestService suggestService = new AirportSuggestService(routeIndexService, 20);
+
+        // Prefixes of real names, and the same with one letter swapped to force a fuzzy pass
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            String city = cities.get(random.nextInt(CITIES));
+            String prefix = city.substring(0, Math.min(city.length(), 2 + random.nextInt(6)));
+            queries[i] = i % 2 == 0 ? prefix : typo(prefix, random);
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String query : queries) {
+                suggestService.suggest(query, 10);
+            }
+        }
+        long[] latencies = new long[QUERIES];
+        Arrays.fill(latencies, Long.MAX_VALUE);
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                suggestService.suggest(queries[i], 10);
+                latencies[i] = Math.min(latencies[i], System.nanoTime() - start);
+            }
+        }
+        Arrays.sort(latencies);
+
+        assertThat(latencies[QUERIES * 99 / 100]).isLessThan(P99_LIMIT_NANOS);
+    }
+
+    private static String cityName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(2);
+        for (int w = 0; w < words; w++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            name.append(w > 0 ? " " : "").append(word);
+        }
+        return name.toString();
+    }
+
+    private static String typo(String prefix, Random random) {
+        if (prefix.length() < 3) {
+            return prefix;
+        }
+        int i = 1 + random.nextInt(prefix.length() - 2);
+        char[] chars = prefix.toCharArray();
+        char swap = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = swap;
+        return new String(chars);
+    }
+}
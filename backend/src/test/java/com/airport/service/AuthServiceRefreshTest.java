@@ -0,0 +1,71 @@
+package com.airport.service;
+
+import com.airport.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Refresh tokens rotate on every use; a reused one revokes its whole family,
+ * including the token that replaced it, and logout revokes both kinds of token.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AuthServiceRefreshTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void refreshRotatesTheRefreshToken() {
+        AuthService.AuthResponse login = authService.login(EMAIL, PASSWORD);
+
+        AuthService.AuthResponse first = authService.refresh(login.refreshToken());
+        AuthService.AuthResponse second = authService.refresh(first.refreshToken());
+
+        assertThat(first.refreshToken()).isNotEqualTo(login.refreshToken());
+        assertThat(second.refreshToken()).isNotEqualTo(first.refreshToken());
+        assertThat(second.user().getId()).isEqualTo(login.user().getId());
+        assertThat(jwtTokenProvider.getPrincipalFromToken(second.token()).id()).isEqualTo(login.user().getId());
+    }
+
+    @Test
+    void reusingARefreshTokenRevokesItsSuccessor() {
+        AuthService.AuthResponse login = authService.login(EMAIL, PASSWORD);
+        AuthService.AuthResponse rotated = authService.refresh(login.refreshToken());
+
+        assertThatThrownBy(() -> authService.refresh(login.refreshToken()))
+                .hasMessageContaining("already used");
+        // The family was revoked, so the legitimate successor is dead too
+        assertThatThrownBy(() -> authService.refresh(rotated.refreshToken()))
+                .hasMessageContaining("already used");
+    }
+
+    @Test
+    void logoutRevokesTheAccessTokenAndTheRefreshFamily() {
+        AuthService.AuthResponse login = authService.login(EMAIL, PASSWORD);
+        // Verified once, so the principal is cached when the token is revoked
+        jwtTokenProvider.getPrincipalFromToken(login.token());
+
+        authService.logout(login.token(), login.refreshToken());
+
+        assertThatThrownBy(() -> jwtTokenProvider.getPrincipalFromToken(login.token()))
+                .isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> authService.refresh(login.refreshToken()))
+                .hasMessageContaining("already used");
+    }
+
+    @Test
+    void unknownRefreshTokensAreRejected() {
+        assertThatThrownBy(() -> authService.refresh("not-a-refresh-token"))
+                .hasMessageContaining("Invalid refresh token");
+    }
+}
@@ -0,0 +1,118 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.BookingRepository;
+import com.airport.repository.FlightRepository;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hold expiry racing a cancel or confirm of the same hold: exactly one of them
+ * changes the booking and the seat comes back at most once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookingHoldRaceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void expiryAndCancelOfOneHoldReleaseItsSeatOnce() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX905", "Houston", "Beaumont",
+                LocalTime.of(10, 0), LocalTime.of(10, 50), 3, 69.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Booking hold = bookingService.createHold(user, flight.getId(),
+                new Passenger("Held", "Twice", 30, Passenger.SeatPreference.NO_PREFERENCE), null,
+                Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        AtomicInteger changed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            boolean expire = i % 2 == 0;
+            results.add(pool.submit(() -> {
+                start.await();
+                if (expire) {
+                    if (bookingService.expireHold(hold.getId())) {
+                        changed.incrementAndGet();
+                    }
+                } else {
+                    try {
+                        bookingService.cancelBooking(hold.getId());
+                        changed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessage("Booking is already cancelled");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(changed.get()).isEqualTo(1);
+        assertThat(flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats()).isEqualTo(3);
+        assertThat(bookingRepository.findStatusById(hold.getId())).contains(Booking.BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void expiredHoldCannotBeConfirmedAndLiveHoldDoesNotExpire() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX906", "Houston", "Victoria",
+                LocalTime.of(11, 0), LocalTime.of(11, 45), 3, 59.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Booking live = bookingService.createHold(user, flight.getId(),
+                new Passenger("Held", "Live", 30, Passenger.SeatPreference.NO_PREFERENCE), null,
+                Duration.ofMinutes(5));
+        Booking lapsed = bookingService.createHold(user, flight.getId(),
+                new Passenger("Held", "Lapsed", 30, Passenger.SeatPreference.NO_PREFERENCE), null,
+                Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        assertThat(bookingService.expireHold(live.getId())).isFalse();
+        assertThatThrownBy(() -> bookingService.confirmHold(lapsed.getId())).hasMessage("Hold has expired");
+
+        assertThat(bookingService.confirmHold(live.getId()).getStatus()).isEqualTo(Booking.BookingStatus.CONFIRMED);
+        assertThat(bookingService.expireHold(live.getId())).isFalse();
+        assertThat(bookingService.expireHold(lapsed.getId())).isTrue();
+        assertThatThrownBy(() -> bookingService.confirmHold(lapsed.getId())).hasMessage("Booking is not on hold");
+
+        assertThat(bookingRepository.findStatusById(live.getId())).contains(Booking.BookingStatus.CONFIRMED);
+        assertThat(flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,128 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.BookingRepository;
+import com.airport.repository.FlightRepository;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many users racing for the last seats of a small flight: exactly the capacity is
+ * sold, every booking has its own seat and the flights row ends at zero. Racing
+ * cancels of one booking give its seat back once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookingOversellTest {
+
+    private static final int CAPACITY = 5;
+    private static final int ATTEMPTS = 40;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentBookingsNeverSellMoreThanCapacity() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX901", "Dallas", "Austin",
+                LocalTime.of(6, 0), LocalTime.of(7, 0), CAPACITY, 99.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+
+        AtomicInteger booked = new AtomicInteger();
+        ConcurrentHashMap<String, AtomicInteger> refusals = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Passenger passenger = new Passenger("Racer", "No" + i, 30, Passenger.SeatPreference.NO_PREFERENCE);
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    bookingService.createBooking(user, flight.getId(), passenger, null);
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    refusals.computeIfAbsent(e.getMessage(), message -> new AtomicInteger()).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(booked.get()).isEqualTo(CAPACITY);
+        assertThat(refusals).containsOnlyKeys("No available seats on this flight");
+        assertThat(flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats()).isZero();
+
+        List<String> seats = bookingRepository.findSeatNumbersByFlight(flight.getId(), Booking.SEAT_HOLDING_STATUSES);
+        assertThat(seats).hasSize(CAPACITY);
+        assertThat(new HashSet<>(seats)).hasSize(CAPACITY);
+    }
+
+    @Test
+    void concurrentCancelsReleaseTheSeatOnce() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX903", "Dallas", "Lubbock",
+                LocalTime.of(6, 0), LocalTime.of(7, 0), CAPACITY, 99.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Booking booking = bookingService.createBooking(user, flight.getId(),
+                new Passenger("Twice", "Cancelled", 30, Passenger.SeatPreference.NO_PREFERENCE), null);
+
+        AtomicInteger cancelled = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    bookingService.cancelBooking(booking.getId());
+                    cancelled.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertThat(e).hasMessage("Booking is already cancelled");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(cancelled.get()).isEqualTo(1);
+        assertThat(flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats()).isEqualTo(CAPACITY);
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.BookingStatus.CANCELLED);
+    }
+}
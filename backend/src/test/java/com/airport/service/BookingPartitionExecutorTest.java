@@ -0,0 +1,68 @@
+package com.airport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * One partition with a 100 ms timeout: a command that started before the timeout
+ * is waited for, one still queued behind it is reported busy and never runs.
+ */
+class BookingPartitionExecutorTest {
+
+    private static final long FLIGHT_ID = 1L;
+
+    private final BookingPartitionExecutor executor = new BookingPartitionExecutor(true, 1, 10, 100, 1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void startedCommandThatOutlivesTheTimeoutIsWaitedFor() {
+        String result = executor.execute(FLIGHT_ID, () -> {
+            sleep(400);
+            return "booked";
+        });
+
+        assertThat(result).isEqualTo("booked");
+        assertThat(executor.getStats().get(0).rejected()).isZero();
+    }
+
+    @Test
+    void queuedCommandThatTimesOutIsBusyAndNeverRuns() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> executor.execute(FLIGHT_ID, () -> {
+            blocking.countDown();
+            sleep(600);
+            return "slow";
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThatThrownBy(() -> executor.execute(FLIGHT_ID, () -> ran.getAndSet(true)))
+                .isInstanceOf(BookingPartitionExecutor.PartitionBusyException.class);
+
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        // Once the partition is free again, the abandoned command is skipped
+        assertThat(executor.execute(FLIGHT_ID, () -> "next")).isEqualTo("next");
+        assertThat(ran).isFalse();
+        assertThat(executor.getStats().get(0).rejected()).isEqualTo(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
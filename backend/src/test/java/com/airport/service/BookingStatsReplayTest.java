@@ -0,0 +1,132 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.model.UserBookingStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The incrementally maintained totals always equal an aggregate over the user's
+ * bookings, whatever path the bookings took and however the row came to exist.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookingStatsReplayTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingStatsService bookingStatsService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User newUser() {
+        return authService.register("Stats Replay", "stats-" + UUID.randomUUID() + "@example.com",
+                "password123", "555-0199");
+    }
+
+    private static Passenger passenger() {
+        return new Passenger("Stats", "Replay", 40, Passenger.SeatPreference.NO_PREFERENCE);
+    }
+
+    private void assertStatsMatchBookings(Long userId) {
+        Map<String, Object> expected = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS total, " +
+                "COALESCE(SUM(CASE WHEN status = 'CONFIRMED' THEN 1 ELSE 0 END), 0) AS confirmed, " +
+                "COALESCE(SUM(CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END), 0) AS cancelled, " +
+                "COALESCE(SUM(CASE WHEN status <> 'CANCELLED' THEN total_price ELSE 0 END), 0) AS spent " +
+                "FROM bookings WHERE user_id = ?", userId);
+        UserBookingStats stats = bookingStatsService.getStats(userId);
+
+        assertThat(stats.getTotalBookings()).isEqualTo(((Number) expected.get("TOTAL")).longValue());
+        assertThat(stats.getConfirmedBookings()).isEqualTo(((Number) expected.get("CONFIRMED")).longValue());
+        assertThat(stats.getCancelledBookings()).isEqualTo(((Number) expected.get("CANCELLED")).longValue());
+        assertThat(stats.getTotalSpent()).isCloseTo(((Number) expected.get("SPENT")).doubleValue(),
+                within(0.001));
+    }
+
+    @Test
+    void createHoldConfirmCancelAndExpireKeepTheTotalsExact() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX908", "Austin", "Lubbock",
+                LocalTime.of(9, 0), LocalTime.of(10, 20), 20, 129.99));
+        User user = newUser();
+
+        Booking first = bookingService.createBooking(user, flight.getId(), passenger(), null);
+        bookingService.createBooking(user, flight.getId(), passenger(), null);
+        Booking confirmed = bookingService.createHold(user, flight.getId(), passenger(), null, Duration.ofMinutes(10));
+        Booking cancelledHold = bookingService.createHold(user, flight.getId(), passenger(), null, Duration.ofMinutes(10));
+        Booking expiring = bookingService.createHold(user, flight.getId(), passenger(), null, Duration.ofMillis(50));
+        assertStatsMatchBookings(user.getId());
+
+        bookingService.confirmHold(confirmed.getId());
+        bookingService.cancelBooking(first.getId());
+        bookingService.cancelBooking(cancelledHold.getId());
+        Thread.sleep(100);
+        // The hold timer may get there first; either way it expires exactly once
+        bookingService.expireHold(expiring.getId());
+        assertThat(bookingService.getBookingById(expiring.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.BookingStatus.CANCELLED);
+
+        assertStatsMatchBookings(user.getId());
+        UserBookingStats stats = bookingStatsService.getStats(user.getId());
+        assertThat(stats.getTotalBookings()).isEqualTo(5);
+        assertThat(stats.getConfirmedBookings()).isEqualTo(2);
+        assertThat(stats.getCancelledBookings()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentFirstBookingsOfAUserWithoutARowAllCount() throws Exception {
+        Flight flight = flightService.createFlight(new Flight("TX909", "Austin", "Midland",
+                LocalTime.of(11, 0), LocalTime.of(12, 10), 20, 99.99));
+        User user = newUser();
+        // As for a user from before the stats table existed
+        jdbcTemplate.update("DELETE FROM user_booking_stats WHERE user_id = ?", user.getId());
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Booking>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return bookingService.createBooking(user, flight.getId(), passenger(), null);
+            }));
+        }
+        start.countDown();
+        for (Future<Booking> result : results) {
+            // Every booking commits; none is rolled back by a clash over the stats row
+            assertThat(result.get(1, TimeUnit.MINUTES).getStatus()).isEqualTo(Booking.BookingStatus.CONFIRMED);
+        }
+        pool.shutdown();
+
+        assertStatsMatchBookings(user.getId());
+        assertThat(bookingStatsService.getStats(user.getId()).getTotalBookings()).isEqualTo(threads);
+    }
+}
@@ -0,0 +1,124 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Changes written straight to the flights table, as another instance would make
+ * them, reach the catalog ETag, route index, flight cache and seat inventory on
+ * the next sync. Rows older than the seat inventory's own view,
+ * or read while this instance is changing the flight, never overwrite it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CatalogSyncTest {
+
+    private static final long OTHER_INSTANCE_ID = 900_000_001L;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private CatalogSyncService catalogSyncService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void changesByAnotherInstanceAreSeenAfterASync() {
+        Flight flight = flightService.createFlight(new Flight("SY100", "Midland", "Odessa",
+                LocalTime.of(7, 0), LocalTime.of(7, 30), 20, 49.99));
+        catalogSyncService.sync();
+        assertThat(flightService.getFlightById(flight.getId()).orElseThrow().getAvailableSeats()).isEqualTo(20);
+
+        // Another instance sells two seats and adds a flight on the same route
+        String before = catalogVersion.etag();
+        jdbcTemplate.update("UPDATE flights SET available_seats = available_seats - 2, revision = revision + 1 "
+                + "WHERE id = ?", flight.getId());
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, origin, destination, departure_time, "
+                + "arrival_time, capacity, available_seats, base_price, revision) "
+                + "VALUES (?, 'SY101', 'Midland', 'Odessa', '09:00:00', '09:30:00', 10, 10, 39.99, 0)",
+                OTHER_INSTANCE_ID);
+        assertThat(catalogVersion.etag()).isEqualTo(before);
+
+        catalogSyncService.sync();
+
+        assertThat(catalogVersion.etag()).isNotEqualTo(before);
+
+        assertThat(seatInventoryService.getAvailableSeats(flight.getId())).isEqualTo(18);
+        assertThat(flightService.getFlightById(flight.getId()).orElseThrow().getAvailableSeats()).isEqualTo(18);
+        assertThat(flightService.searchByRoute("Midland", "Odessa", null, null))
+                .extracting(Flight::getFlightNumber, Flight::getAvailableSeats)
+                .containsExactly(tuple("SY100", 18), tuple("SY101", 10));
+
+        // ... then renames and finally deletes the new flight
+        jdbcTemplate.update("UPDATE flights SET flight_number = 'SY102', revision = revision + 1 WHERE id = ?",
+                OTHER_INSTANCE_ID);
+        catalogSyncService.sync();
+        assertThat(flightService.getFlightByNumber("SY102")).isPresent();
+        assertThat(flightService.searchByRoute("Midland", "Odessa", null, null))
+                .extracting(Flight::getFlightNumber).containsExactly("SY100", "SY102");
+
+        String beforeDelete = catalogVersion.etag();
+        jdbcTemplate.update("DELETE FROM flights WHERE id = ?", OTHER_INSTANCE_ID);
+        catalogSyncService.sync();
+        assertThat(catalogVersion.etag()).isNotEqualTo(beforeDelete);
+        assertThat(flightService.searchByRoute("Midland", "Odessa", null, null))
+                .extracting(Flight::getFlightNumber).containsExactly("SY100");
+        assertThat(flightService.getFlightById(OTHER_INSTANCE_ID)).isEmpty();
+    }
+
+    @Test
+    void staleRowsAndRowsRacingLocalChangesAreNotApplied() {
+        Flight flight = flightService.createFlight(new Flight("SY103", "Midland", "Lubbock",
+                LocalTime.of(11, 0), LocalTime.of(11, 50), 20, 59.99));
+        Flight before = flightRepository.findById(flight.getId()).orElseThrow();
+
+        // A row read before this instance's sale commits is older than the counter;
+        // the sale itself moves the ETag without waiting for a sync
+        String beforeSale = catalogVersion.etag();
+        assertThat(seatInventoryService.tryReserve(flight.getId())).isTrue();
+        assertThat(catalogVersion.etag()).isNotEqualTo(beforeSale);
+        assertThat(seatInventoryService.refresh(before)).isEqualTo(SeatInventoryService.Refresh.UNCHANGED);
+        assertThat(seatInventoryService.getCommittedSeats(flight.getId())).isEqualTo(19);
+
+        // Another instance sells a seat, read while a local sale is still open
+        jdbcTemplate.update("UPDATE flights SET available_seats = available_seats - 1, revision = revision + 1 "
+                + "WHERE id = ?", flight.getId());
+        Flight otherSale = flightRepository.findById(flight.getId()).orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(seatInventoryService.tryReserve(flight.getId())).isTrue();
+            assertThat(seatInventoryService.refresh(otherSale)).isEqualTo(SeatInventoryService.Refresh.DEFERRED);
+            assertThat(seatInventoryService.getAvailableSeats(flight.getId())).isEqualTo(18);
+        });
+        assertThat(seatInventoryService.getCommittedSeats(flight.getId())).isEqualTo(18);
+
+        // The next pass loads the row again and, now that it is newer, applies it
+        catalogSyncService.sync();
+        assertThat(seatInventoryService.getAvailableSeats(flight.getId())).isEqualTo(17);
+        Flight latest = flightRepository.findById(flight.getId()).orElseThrow();
+        assertThat(latest.getAvailableSeats()).isEqualTo(17);
+        assertThat(seatInventoryService.refresh(latest)).isEqualTo(SeatInventoryService.Refresh.UNCHANGED);
+    }
+}
@@ -0,0 +1,68 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CityIndexTest {
+
+    private static final CityIndex INDEX = new CityIndex(List.of(
+            flight("San Antonio", "Dallas"),
+            flight("Dallas", "San Antonio"),
+            flight("San Angelo", "Austin"),
+            flight("Antioch", "Dallas"),
+            flight("Austin", "Dallas")
+    ));
+
+    private static Flight flight(String origin, String destination) {
+        return new Flight("CI1", origin, destination, LocalTime.NOON, 100, 50.0);
+    }
+
+    @Test
+    void prefixMatchesWholeNamesBeforeLaterWords() {
+        List<CityIndex.Match> matches = INDEX.prefixMatches("ant");
+
+        assertThat(matches).extracting(match -> match.city().name(), CityIndex.Match::rank)
+                .containsExactlyInAnyOrder(
+                        tuple("Antioch", 0),
+                        tuple("San Antonio", 1));
+        assertThat(INDEX.prefixMatches("san an")).extracting(match -> match.city().name())
+                .containsExactlyInAnyOrder("San Antonio", "San Angelo");
+        assertThat(INDEX.prefixMatches("houston")).isEmpty();
+    }
+
+    @Test
+    void citiesCountTheirDeparturesAndArrivals() {
+        CityIndex.City dallas = INDEX.prefixMatches("dallas").get(0).city();
+
+        assertThat(dallas.departures()).isEqualTo(1);
+        assertThat(dallas.arrivals()).isEqualTo(3);
+        assertThat(dallas.key()).isEqualTo("dallas");
+    }
+
+    @Test
+    void fuzzyMatchesToleratesTyposAndRanksByEdits() {
+        // One substitution, and a swap of two neighbours counted as one edit
+        assertThat(INDEX.fuzzyMatches("dalas", 1)).extracting(match -> match.city().name(), CityIndex.Match::rank)
+                .containsExactly(tuple("Dallas", 3));
+        assertThat(INDEX.fuzzyMatches("asutin", 1)).extracting(match -> match.city().name())
+                .containsExactly("Austin");
+        assertThat(INDEX.fuzzyMatches("antonoi", 1)).extracting(match -> match.city().name(), CityIndex.Match::rank)
+                .containsExactly(tuple("San Antonio", 3));
+        assertThat(INDEX.fuzzyMatches("xyzzy", 2)).isEmpty();
+    }
+
+    @Test
+    void prefixEditsMeasuresDistanceToTheClosestPrefix() {
+        assertThat(CityIndex.prefixEdits("aus", "austin", 2)).isZero();
+        assertThat(CityIndex.prefixEdits("asu", "austin", 2)).isEqualTo(1);
+        assertThat(CityIndex.prefixEdits("austn", "austin", 2)).isEqualTo(1);
+        assertThat(CityIndex.prefixEdits("houston", "austin", 2)).isEqualTo(3);
+        assertThat(CityIndex.prefixEdits("austin texas", "austin", 2)).isEqualTo(3);
+    }
+}
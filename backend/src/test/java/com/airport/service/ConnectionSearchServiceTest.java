@@ -0,0 +1,101 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.service.ConnectionSearchService.Itinerary;
+import com.airport.service.ConnectionSearchService.SortBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uvalde to Laredo: a direct flight, one stop through Del Rio and two stops
+ * through Del Rio and Eagle Pass. The minimum connection is 45 minutes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ConnectionSearchServiceTest {
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private ConnectionSearchService connectionSearchService;
+
+    @BeforeEach
+    void createFlights() {
+        if (flightService.getFlightByNumber("UV100").isPresent()) {
+            return;
+        }
+        flight("UV100", "Uvalde", "Laredo", 8, 0, 9, 0, 300.0);
+        flight("UV101", "Uvalde", "Del Rio", 7, 0, 7, 40, 80.0);
+        // Leaves 20 minutes after UV101 lands, too soon to connect
+        flight("UV102", "Del Rio", "Laredo", 8, 0, 9, 0, 10.0);
+        flight("UV103", "Del Rio", "Laredo", 8, 30, 9, 30, 90.0);
+        flight("UV104", "Del Rio", "Eagle Pass", 8, 30, 9, 10, 40.0);
+        flight("UV105", "Eagle Pass", "Laredo", 10, 0, 10, 40, 30.0);
+    }
+
+    private void flight(String number, String origin, String destination,
+                        int departHour, int departMinute, int arriveHour, int arriveMinute, double price) {
+        flightService.createFlight(new Flight(number, origin, destination,
+                LocalTime.of(departHour, departMinute), LocalTime.of(arriveHour, arriveMinute), 50, price));
+    }
+
+    private static List<String> numbers(Itinerary itinerary) {
+        return itinerary.flights().stream().map(Flight::getFlightNumber).toList();
+    }
+
+    @Test
+    void cheapestFirstAcrossDirectAndConnectingItineraries() {
+        List<Itinerary> itineraries = connectionSearchService.search("uvalde", "LAREDO", 2, SortBy.PRICE, 10);
+
+        assertThat(itineraries).extracting(ConnectionSearchServiceTest::numbers).containsExactly(
+                List.of("UV101", "UV104", "UV105"),
+                List.of("UV101", "UV103"),
+                List.of("UV100"));
+        Itinerary twoStops = itineraries.get(0);
+        assertThat(twoStops.stops()).isEqualTo(2);
+        assertThat(twoStops.totalPrice()).isEqualTo(150.0);
+        assertThat(twoStops.departureTime()).isEqualTo("07:00 AM");
+        assertThat(twoStops.arrivalTime()).isEqualTo("10:40 AM");
+        assertThat(twoStops.durationMinutes()).isEqualTo(220);
+    }
+
+    @Test
+    void earliestArrivalFirstWhenSortedByArrival() {
+        assertThat(connectionSearchService.search("Uvalde", "Laredo", 2, SortBy.ARRIVAL, 10))
+                .extracting(ConnectionSearchServiceTest::numbers).containsExactly(
+                        List.of("UV100"),
+                        List.of("UV101", "UV103"),
+                        List.of("UV101", "UV104", "UV105"));
+    }
+
+    @Test
+    void maxStopsAndLimitBoundTheResults() {
+        assertThat(connectionSearchService.search("Uvalde", "Laredo", 0, SortBy.PRICE, 10))
+                .extracting(ConnectionSearchServiceTest::numbers).containsExactly(List.of("UV100"));
+        assertThat(connectionSearchService.search("Uvalde", "Laredo", 1, SortBy.PRICE, 10))
+                .extracting(ConnectionSearchServiceTest::numbers)
+                .containsExactly(List.of("UV101", "UV103"), List.of("UV100"));
+        // The bounded heap keeps only the best, even once pruning starts
+        assertThat(connectionSearchService.search("Uvalde", "Laredo", 2, SortBy.PRICE, 1))
+                .extracting(ConnectionSearchServiceTest::numbers)
+                .containsExactly(List.of("UV101", "UV104", "UV105"));
+    }
+
+    @Test
+    void rejectsInvalidSearches() {
+        assertThatThrownBy(() -> connectionSearchService.search("Uvalde", "Laredo", 3, SortBy.PRICE, 10))
+                .hasMessageContaining("Stops");
+        assertThatThrownBy(() -> connectionSearchService.search("Uvalde", "Laredo", 1, SortBy.PRICE, 0))
+                .hasMessageContaining("Limit");
+        assertThatThrownBy(() -> connectionSearchService.search("Uvalde", " uvalde", 1, SortBy.PRICE, 10))
+                .hasMessageContaining("two different cities");
+    }
+}
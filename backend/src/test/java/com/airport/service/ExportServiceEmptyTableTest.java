@@ -0,0 +1,40 @@
+package com.airport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A CSV export of an empty table still has its header line.
+ */
+class ExportServiceEmptyTableTest {
+
+    @Test
+    void csvExportOfNoBookingsIsTheHeaderAlone() throws Exception {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:empty-export;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT, email VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE flights (id BIGINT, flight_number VARCHAR(20), origin VARCHAR(100), "
+                + "destination VARCHAR(100), departure_time TIME)");
+        jdbcTemplate.execute("CREATE TABLE passengers (id BIGINT, first_name VARCHAR(100), last_name VARCHAR(100))");
+        jdbcTemplate.execute("CREATE TABLE bookings (id BIGINT, booking_reference VARCHAR(20), status VARCHAR(20), "
+                + "user_id BIGINT, flight_id BIGINT, passenger_id BIGINT, seat_number VARCHAR(5), "
+                + "total_price DOUBLE, booking_date TIMESTAMP, hold_expires_at TIMESTAMP)");
+
+        // Booking exports never touch the seat inventory
+        ExportService exportService = new ExportService(dataSource, new ObjectMapper(), null, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBookings(ExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,bookingReference,status,userEmail,"
+                + "flightNumber,origin,destination,departureTime,passengerFirstName,passengerLastName,"
+                + "seatNumber,totalPrice,bookingDate,holdExpiresAt\r\n");
+    }
+}
@@ -0,0 +1,158 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.PassengerRepository;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a million bookings from the schema Hibernate generates and checks that
+ * the rows reach the output one by one instead of being collected first: heap use
+ * measured while writing stays flat. Surefire runs this class on its own with a
+ * capped heap (see the large-export execution in pom.xml), far too small to hold
+ * the export, so collecting the rows fails the build with an OutOfMemoryError.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportServiceLargeExportTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private static Path dir;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long bookings;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) throws IOException {
+        // File database, so the rows live on disk rather than in the heap being measured
+        dir = Files.createTempDirectory("export-test");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dir.resolve("export") + ";CACHE_SIZE=8192");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @BeforeAll
+    void insertBookings() {
+        Flight flight = flightService.createFlight(new Flight("EX100", "Dallas", "Houston",
+                LocalTime.of(7, 0), LocalTime.of(8, 5), 180, 99.50));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Passenger passenger = new Passenger("Export", "Rider", 30, Passenger.SeatPreference.NO_PREFERENCE);
+        passenger.setUser(user);
+        passenger = passengerRepository.save(passenger);
+
+        jdbcTemplate.update("INSERT INTO bookings (id, booking_reference, user_id, flight_id, passenger_id, " +
+                        "booking_date, seat_number, total_price, status) " +
+                        "SELECT ? + x, 'EXP' || x, ?, ?, ?, TIMESTAMP '2026-01-01 00:00:00' + x * INTERVAL '1' SECOND, " +
+                        "'1A', 99.50, 'CONFIRMED' FROM SYSTEM_RANGE(1, ?)",
+                FIRST_ID, user.getId(), flight.getId(), passenger.getId(), ROWS);
+        bookings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Long.class);
+        assertThat(bookings).isGreaterThanOrEqualTo(ROWS);
+    }
+
+    @AfterAll
+    void deleteDatabase() throws IOException {
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Test
+    void ndjsonExportOfAMillionBookingsStreams() throws Exception {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+        exportService.exportBookings(ExportService.Format.NDJSON, out);
+
+        assertThat(out.lines).isEqualTo(bookings);
+        assertThat(out.maxHeapGrowth()).isLessThan(MAX_HEAP_GROWTH);
+        // The flight's LocalTime column comes out as a time of day, as the API shows it
+        assertThat(out.firstLine()).contains("\"bookingReference\":\"EXP1\"", "\"departureTime\":\"07:00\"");
+    }
+
+    @Test
+    void csvExportOfAMillionBookingsStreams() throws Exception {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+        exportService.exportBookings(ExportService.Format.CSV, out);
+
+        // Header plus one line per booking
+        assertThat(out.lines).isEqualTo(bookings + 1);
+        assertThat(out.maxHeapGrowth()).isLessThan(MAX_HEAP_GROWTH);
+        assertThat(out.firstLine()).startsWith("id,bookingReference,status,userEmail,flightNumber");
+    }
+
+    /**
+     * Discards the export, keeping the first line, counting lines and sampling the
+     * heap every 100,000 lines.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final long baseline = usedHeap();
+        private final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        private long maxUsed = baseline;
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (lines == 0) {
+                first.write(b);
+            }
+            if (b == '\n' && ++lines % 100_000 == 0) {
+                maxUsed = Math.max(maxUsed, usedHeap());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        long maxHeapGrowth() {
+            return maxUsed - baseline;
+        }
+
+        String firstLine() {
+            return first.toString(StandardCharsets.UTF_8).trim();
+        }
+
+        private static long usedHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A lookup that loads a row while an update commits and evicts the flight must
+ * not leave the old row cached behind the evict.
+ */
+class FlightCacheServiceTest {
+
+    private static final Long ID = 42L;
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private final FlightCacheService cache =
+            new FlightCacheService(flightRepository, seatInventoryService, 100, 10);
+
+    @Test
+    void loadRacingAnUpdateByIdIsNotCached() {
+        when(seatInventoryService.getAvailableSeats(anyLong())).thenReturn(-1);
+        when(flightRepository.findById(ID))
+                .thenAnswer(invocation -> {
+                    // The update commits and evicts while this row is on its way back
+                    cache.evict(ID, "TX100", "TX200");
+                    return Optional.of(flight("TX100"));
+                })
+                .thenReturn(Optional.of(flight("TX200")));
+
+        assertThat(cache.getById(ID).orElseThrow().getFlightNumber()).isEqualTo("TX100");
+
+        assertThat(cache.getById(ID).orElseThrow().getFlightNumber()).isEqualTo("TX200");
+        assertThat(cache.getById(ID).orElseThrow().getFlightNumber()).isEqualTo("TX200");
+        verify(flightRepository, times(2)).findById(ID);
+    }
+
+    @Test
+    void loadRacingARenameByNumberIsNotCached() {
+        when(seatInventoryService.getAvailableSeats(anyLong())).thenReturn(-1);
+        when(flightRepository.findByFlightNumber("TX100"))
+                .thenAnswer(invocation -> {
+                    cache.evict(ID, "TX100", "TX200");
+                    return Optional.of(flight("TX100"));
+                })
+                .thenReturn(Optional.empty());
+        when(flightRepository.findById(ID)).thenReturn(Optional.of(flight("TX200")));
+
+        assertThat(cache.getByNumber("TX100")).isPresent();
+
+        // Neither the old number nor the old row stayed behind
+        assertThat(cache.getByNumber("TX100")).isEmpty();
+        assertThat(cache.getById(ID).orElseThrow().getFlightNumber()).isEqualTo("TX200");
+    }
+
+    private static Flight flight(String flightNumber) {
+        Flight flight = new Flight(flightNumber, "Austin", "Dallas",
+                LocalTime.of(8, 0), LocalTime.of(9, 0), 50, 99.0);
+        flight.setId(ID);
+        return flight;
+    }
+}
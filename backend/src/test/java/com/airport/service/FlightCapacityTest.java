@@ -0,0 +1,79 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.FlightRepository;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Changing a flight's capacity in database mode shifts the stored seat count by
+ * the same amount, and a capacity below the seats sold is refused.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class FlightCapacityTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void capacityChangesMoveAvailableSeatsWithThem() {
+        Flight flight = flightService.createFlight(new Flight("TX904", "Austin", "El Paso",
+                LocalTime.of(8, 0), LocalTime.of(9, 30), 5, 129.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(user, flight.getId(),
+                    new Passenger("Capacity", "No" + i, 30, Passenger.SeatPreference.NO_PREFERENCE), null);
+        }
+
+        assertThat(flightService.updateFlight(flight.getId(), withCapacity(flight, 4)).getAvailableSeats())
+                .isEqualTo(1);
+        assertSeats(flight.getId(), 4, 1);
+
+        assertThatThrownBy(() -> flightService.updateFlight(flight.getId(), withCapacity(flight, 2)))
+                .hasMessage("Capacity cannot be below the 3 seats already sold");
+        assertSeats(flight.getId(), 4, 1);
+
+        // Exactly the seats sold is allowed and leaves the flight full
+        flightService.updateFlight(flight.getId(), withCapacity(flight, 3));
+        assertSeats(flight.getId(), 3, 0);
+        assertThatThrownBy(() -> bookingService.createBooking(user, flight.getId(),
+                new Passenger("Capacity", "Full", 30, Passenger.SeatPreference.NO_PREFERENCE), null))
+                .hasMessage("No available seats on this flight");
+
+        flightService.updateFlight(flight.getId(), withCapacity(flight, 10));
+        assertSeats(flight.getId(), 10, 7);
+    }
+
+    private void assertSeats(Long flightId, int capacity, int available) {
+        Flight stored = flightRepository.findById(flightId).orElseThrow();
+        assertThat(stored.getCapacity()).isEqualTo(capacity);
+        assertThat(stored.getAvailableSeats()).isEqualTo(available);
+        assertThat(seatInventoryService.getAvailableSeats(flightId)).isEqualTo(available);
+    }
+
+    private static Flight withCapacity(Flight flight, int capacity) {
+        return new Flight(flight.getFlightNumber(), flight.getOrigin(), flight.getDestination(),
+                flight.getDepartureTime(), flight.getArrivalTime(), capacity, flight.getBasePrice());
+    }
+}
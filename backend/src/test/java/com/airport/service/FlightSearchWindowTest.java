@@ -0,0 +1,69 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class FlightSearchWindowTest {
+
+    private static final LocalTime[] DEPARTURES = {
+            LocalTime.of(18, 45), LocalTime.of(5, 0), LocalTime.of(12, 0),
+            LocalTime.of(23, 10), LocalTime.of(9, 30), LocalTime.of(14, 30)
+    };
+
+    @Autowired
+    private FlightService flightService;
+
+    @BeforeEach
+    void createFlights() {
+        if (flightService.getFlightByNumber("MA100").isPresent()) {
+            return;
+        }
+        for (int i = 0; i < DEPARTURES.length; i++) {
+            flightService.createFlight(new Flight("MA10" + i, "Marfa", "Alpine",
+                    DEPARTURES[i], DEPARTURES[i].plusMinutes(40), 30, 59.99));
+        }
+    }
+
+    @Test
+    void windowBoundsAreInclusiveAndResultsComeInDepartureOrder() {
+        List<Flight> flights = flightService.searchByOrigin("marfa", LocalTime.of(9, 30), LocalTime.of(14, 30));
+
+        assertThat(flights).extracting(Flight::getDepartureTime)
+                .containsExactly(LocalTime.of(9, 30), LocalTime.of(12, 0), LocalTime.of(14, 30));
+    }
+
+    @Test
+    void eitherBoundMayBeOmitted() {
+        assertThat(flightService.searchByRoute("Marfa", "Alpine", LocalTime.of(18, 0), null))
+                .extracting(Flight::getDepartureTime)
+                .containsExactly(LocalTime.of(18, 45), LocalTime.of(23, 10));
+        assertThat(flightService.searchByDestination("ALPINE", null, LocalTime.of(6, 0)))
+                .extracting(Flight::getDepartureTime)
+                .containsExactly(LocalTime.of(5, 0));
+        assertThat(flightService.searchByRoute("Marfa", "Alpine", null, null)).hasSize(DEPARTURES.length);
+    }
+
+    @Test
+    void windowTimesParseIn24HourAndAmPmForm() {
+        assertThat(flightService.parseWindowTime("14:30")).isEqualTo(LocalTime.of(14, 30));
+        assertThat(flightService.parseWindowTime("02:30 pm")).isEqualTo(LocalTime.of(14, 30));
+        assertThat(flightService.parseWindowTime(" ")).isNull();
+        assertThatThrownBy(() -> flightService.parseWindowTime("25:00")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void invertedWindowIsRejected() {
+        assertThatThrownBy(() -> flightService.searchByOrigin("Marfa", LocalTime.of(15, 0), LocalTime.of(9, 0)))
+                .isInstanceOf(RuntimeException.class);
+    }
+}
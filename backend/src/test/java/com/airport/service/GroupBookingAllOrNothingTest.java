@@ -0,0 +1,95 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A group booking takes every member's seat or none: a group larger than the
+ * seats left, or one member asking for a taken seat, leaves no booking, seat
+ * count or seat map change behind.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class GroupBookingAllOrNothingTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void groupLargerThanTheSeatsLeftBooksNobody() {
+        Flight flight = flightService.createFlight(new Flight("TX915", "Beaumont", "Houston",
+                LocalTime.of(6, 30), LocalTime.of(7, 15), 3, 59.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+
+        assertThatThrownBy(() -> bookingService.createGroupBooking(user, flight.getId(),
+                members(null, null, null, null)))
+                .hasMessage("Not enough seats on this flight for 4 passengers");
+
+        assertUnchanged(flight.getId(), 3, 0);
+    }
+
+    @Test
+    void memberAskingForATakenSeatBooksNobody() {
+        Flight flight = flightService.createFlight(new Flight("TX916", "Beaumont", "Dallas",
+                LocalTime.of(8, 30), LocalTime.of(9, 40), 10, 89.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        bookingService.createBooking(user, flight.getId(),
+                new Passenger("Solo", "Traveller", 35, Passenger.SeatPreference.WINDOW), "1A");
+
+        // The first two members are seated before the third is refused
+        assertThatThrownBy(() -> bookingService.createGroupBooking(user, flight.getId(),
+                members("2A", null, "1A")))
+                .hasMessage("Seat 1A is already taken");
+
+        assertUnchanged(flight.getId(), 9, 1);
+        SeatMap seatMap = flightService.getSeatMap(flight.getId()).orElseThrow();
+        assertThat(seatMap.isOccupied("2A")).isFalse();
+
+        // The seats are free for the same group on a second try
+        assertThat(bookingService.createGroupBooking(user, flight.getId(), members("2A", null, "3A")))
+                .hasSize(3);
+        assertUnchanged(flight.getId(), 6, 4);
+    }
+
+    private void assertUnchanged(Long flightId, int available, int bookings) {
+        assertThat(seatInventoryService.getAvailableSeats(flightId)).isEqualTo(available);
+        assertThat(jdbcTemplate.queryForObject("SELECT available_seats FROM flights WHERE id = ?",
+                Integer.class, flightId)).isEqualTo(available);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE flight_id = ?",
+                Integer.class, flightId)).isEqualTo(bookings);
+        assertThat(flightService.getSeatMap(flightId).orElseThrow().getOccupiedCount()).isEqualTo(bookings);
+    }
+
+    private static List<BookingService.GroupMember> members(String... seats) {
+        List<BookingService.GroupMember> members = new ArrayList<>(seats.length);
+        for (int i = 0; i < seats.length; i++) {
+            members.add(new BookingService.GroupMember(
+                    new Passenger("Group", "Member" + i, 40, Passenger.SeatPreference.NO_PREFERENCE), seats[i]));
+        }
+        return members;
+    }
+}
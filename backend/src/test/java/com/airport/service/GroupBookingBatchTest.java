@@ -0,0 +1,79 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ids come from pooled sequences, so a group's passengers and bookings are
+ * inserted in JDBC batches: a bigger group inserts more rows but prepares
+ * (almost) no more statements. Only a sequence call for the next id block can
+ * add one per table.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class GroupBookingBatchTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void groupInsertsAreBatched() {
+        Flight flight = flightService.createFlight(new Flight("TX902", "Waco", "Tyler",
+                LocalTime.of(6, 0), LocalTime.of(7, 0), 50, 79.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        try {
+            // Warm up, so both measured groups start from loaded caches
+            bookingService.createGroupBooking(user, flight.getId(), members(2));
+
+            statistics.clear();
+            bookingService.createGroupBooking(user, flight.getId(), members(3));
+            long smallInserts = statistics.getEntityInsertCount();
+            long smallStatements = statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            bookingService.createGroupBooking(user, flight.getId(), members(9));
+            long largeInserts = statistics.getEntityInsertCount();
+            long largeStatements = statistics.getPrepareStatementCount();
+
+            // A passenger and a booking per member
+            assertThat(largeInserts - smallInserts).isEqualTo(12);
+            assertThat(largeStatements - smallStatements).isLessThanOrEqualTo(2);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private static List<BookingService.GroupMember> members(int count) {
+        List<BookingService.GroupMember> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(new BookingService.GroupMember(
+                    new Passenger("Group", "Member" + i, 40, Passenger.SeatPreference.NO_PREFERENCE), null));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,59 @@
+package com.airport.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService service = new IdempotencyService(100, 60, 1000);
+
+    @Test
+    void refusalsAreReplayedWithoutRunningAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<?> response = service.execute(1L, "create", "key-1", "body", () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.badRequest().body("No available seats on this flight");
+            });
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void busyResponsesAreNotKeptSoARetryRuns() {
+        AtomicInteger runs = new AtomicInteger();
+        ResponseEntity<?> first = service.execute(1L, "create", "key-2", "body", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        ResponseEntity<?> retry = service.execute(1L, "create", "key-2", "body", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body("booked");
+        });
+        ResponseEntity<?> replay = service.execute(1L, "create", "key-2", "body", () -> {
+            throw new AssertionError("ran a third time");
+        });
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replay.getBody()).isEqualTo("booked");
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reusingAKeyForAnotherBodyIsRejected() {
+        service.execute(1L, "create", "key-3", "body", () -> ResponseEntity.ok("done"));
+
+        assertThatThrownBy(() -> service.execute(1L, "create", "key-3", "other body",
+                () -> ResponseEntity.ok("done")))
+                .hasMessage("Idempotency-Key was already used for a different request");
+    }
+}
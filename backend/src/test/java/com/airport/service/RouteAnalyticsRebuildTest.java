@@ -0,0 +1,88 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Totals kept up to date by live booking changes equal the totals rebuilt from
+ * the bookings table.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class RouteAnalyticsRebuildTest {
+
+    @Autowired
+    private RouteAnalyticsService routeAnalyticsService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Passenger passenger() {
+        return new Passenger("Route", "Analytics", 35, Passenger.SeatPreference.NO_PREFERENCE);
+    }
+
+    private RouteAnalyticsService.RouteReport report() {
+        return routeAnalyticsService.getRouteReport().stream()
+                .filter(route -> route.origin().equals("Tyler") && route.destination().equals("Waco"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private RouteAnalyticsService.DailyRouteReport today() {
+        return routeAnalyticsService.getDailyReport(1).stream()
+                .filter(route -> route.origin().equals("Tyler") && route.destination().equals("Waco"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void liveTotalsEqualRebuiltTotals() {
+        Flight morning = flightService.createFlight(new Flight("TX910", "Tyler", "Waco",
+                LocalTime.of(7, 30), LocalTime.of(8, 30), 10, 79.99));
+        Flight evening = flightService.createFlight(new Flight("TX911", "Tyler", "Waco",
+                LocalTime.of(18, 30), LocalTime.of(19, 30), 10, 89.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+
+        Booking cancelled = bookingService.createBooking(user, morning.getId(), passenger(), null);
+        bookingService.createBooking(user, morning.getId(), passenger(), null);
+        Booking hold = bookingService.createHold(user, evening.getId(), passenger(), null, Duration.ofMinutes(10));
+        Booking released = bookingService.createHold(user, evening.getId(), passenger(), null, Duration.ofMinutes(10));
+        bookingService.confirmHold(hold.getId());
+        bookingService.cancelBooking(cancelled.getId());
+        bookingService.cancelBooking(released.getId());
+
+        RouteAnalyticsService.RouteReport live = report();
+        RouteAnalyticsService.DailyRouteReport liveToday = today();
+        jdbcTemplate.update("DELETE FROM flight_day_stats WHERE flight_id IN (?, ?)", morning.getId(), evening.getId());
+        routeAnalyticsService.backfillMissing();
+        RouteAnalyticsService.RouteReport rebuilt = report();
+
+        assertThat(rebuilt).isEqualTo(live);
+        assertThat(today()).isEqualTo(liveToday);
+        assertThat(live.flights()).isEqualTo(2);
+        assertThat(live.bookings()).isEqualTo(4);
+        assertThat(live.cancellations()).isEqualTo(2);
+        assertThat(live.seatsSold()).isEqualTo(2);
+        assertThat(live.revenue()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import com.airport.service.RouteGraph.Leg;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteGraphTest {
+
+    private static Flight flight(String number, String origin, String destination,
+                                 LocalTime departs, LocalTime arrives) {
+        return new Flight(number, origin, destination, departs, arrives, 100, 50.0);
+    }
+
+    @Test
+    void legsAreGroupedByNormalizedCitiesAndSortedByDeparture() {
+        RouteGraph graph = new RouteGraph(List.of(
+                flight("A3", "Austin", "Dallas", LocalTime.of(18, 0), LocalTime.of(19, 0)),
+                flight("A1", " austin ", "DALLAS", LocalTime.of(6, 0), LocalTime.of(7, 0)),
+                flight("A2", "Austin", "Houston", LocalTime.of(12, 0), LocalTime.of(13, 0))
+        ), 90);
+
+        assertThat(graph.departures("austin")).extracting(leg -> leg.flight().getFlightNumber())
+                .containsExactly("A1", "A2", "A3");
+        assertThat(graph.legs("austin", "dallas")).extracting(leg -> leg.flight().getFlightNumber())
+                .containsExactly("A1", "A3");
+        assertThat(graph.legs("dallas", "austin")).isEmpty();
+        assertThat(graph.departures("El Paso")).isEmpty();
+    }
+
+    @Test
+    void missingArrivalUsesBlockTimeAndEarlierArrivalIsNextDay() {
+        RouteGraph graph = new RouteGraph(List.of(
+                flight("B1", "Austin", "Dallas", LocalTime.of(10, 0), null),
+                flight("B2", "Dallas", "Austin", LocalTime.of(23, 30), LocalTime.of(0, 45)),
+                flight("B3", "Dallas", "Houston", null, null)
+        ), 90);
+
+        Leg sameDay = graph.departures("austin")[0];
+        assertThat(sameDay.departs()).isEqualTo(600);
+        assertThat(sameDay.arrives()).isEqualTo(690);
+
+        // B3 has no departure time and is left out
+        Leg[] fromDallas = graph.departures("dallas");
+        assertThat(fromDallas).hasSize(1);
+        assertThat(fromDallas[0].arrives()).isEqualTo(24 * 60 + 45);
+        assertThat(RouteGraph.formatMinute(fromDallas[0].arrives())).isEqualTo("12:45 AM");
+    }
+
+    @Test
+    void firstDepartingAtFindsTheFirstLegAtOrAfterTheMinute() {
+        RouteGraph graph = new RouteGraph(List.of(
+                flight("C1", "Austin", "Dallas", LocalTime.of(6, 0), null),
+                flight("C2", "Austin", "Dallas", LocalTime.of(9, 0), null),
+                flight("C3", "Austin", "Dallas", LocalTime.of(9, 0), null),
+                flight("C4", "Austin", "Dallas", LocalTime.of(15, 0), null)
+        ), 60);
+        Leg[] legs = graph.legs("austin", "dallas");
+
+        assertThat(RouteGraph.firstDepartingAt(legs, 0)).isZero();
+        assertThat(RouteGraph.firstDepartingAt(legs, 6 * 60 + 1)).isEqualTo(1);
+        assertThat(RouteGraph.firstDepartingAt(legs, 9 * 60)).isEqualTo(1);
+        assertThat(RouteGraph.firstDepartingAt(legs, 15 * 60)).isEqualTo(3);
+        assertThat(RouteGraph.firstDepartingAt(legs, 15 * 60 + 1)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,51 @@
+package com.airport.service;
+
+import com.airport.model.Flight;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seat changes show in the committed count, which feeds the seat streams, only
+ * once their transaction commits; a rolled-back change never shows there.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SeatCommitVisibilityTest {
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void committedSeatsOnlyMoveWhenTheTransactionCommits() {
+        Long flightId = flightService.createFlight(new Flight("TX907", "Houston", "Austin",
+                LocalTime.of(10, 0), 10, 99.99)).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(seatInventoryService.tryReserve(flightId)).isTrue();
+            assertThat(seatInventoryService.getAvailableSeats(flightId)).isEqualTo(9);
+            assertThat(seatInventoryService.getCommittedSeats(flightId)).isEqualTo(10);
+            status.setRollbackOnly();
+        });
+        assertThat(seatInventoryService.getAvailableSeats(flightId)).isEqualTo(10);
+        assertThat(seatInventoryService.getCommittedSeats(flightId)).isEqualTo(10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(seatInventoryService.tryReserve(flightId, 3)).isTrue();
+            seatInventoryService.release(flightId);
+            assertThat(seatInventoryService.getCommittedSeats(flightId)).isEqualTo(10);
+        });
+        assertThat(seatInventoryService.getAvailableSeats(flightId)).isEqualTo(8);
+        assertThat(seatInventoryService.getCommittedSeats(flightId)).isEqualTo(8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.airport.service;
+
+import com.airport.model.Booking;
+import com.airport.model.Flight;
+import com.airport.model.Passenger;
+import com.airport.model.User;
+import com.airport.repository.FlightRepository;
+import com.airport.repository.PassengerRepository;
+import com.airport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Seat maps stay consistent with seats sold by other instances, keep seats taken
+ * by open bookings across a capacity change, and never renumber issued seats.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SeatMapServiceTest {
+
+    private static final long OTHER_INSTANCE_BOOKING_ID = 900_000_101L;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seatSoldByAnotherInstanceIsRefusedAndLearned() {
+        Flight flight = flightService.createFlight(new Flight("TX912", "Waco", "Tyler",
+                LocalTime.of(6, 0), LocalTime.of(7, 0), 10, 79.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        // This instance builds its map before the other instance sells 1A
+        assertThat(flightService.getSeatMap(flight.getId()).orElseThrow().isOccupied("1A")).isFalse();
+
+        Passenger other = new Passenger("Other", "Instance", 40, Passenger.SeatPreference.WINDOW);
+        other.setUser(user);
+        other = passengerRepository.save(other);
+        jdbcTemplate.update("INSERT INTO bookings (id, booking_reference, user_id, flight_id, passenger_id, "
+                        + "booking_date, seat_number, held_seat, total_price, status) "
+                        + "VALUES (?, 'OTHER1', ?, ?, ?, CURRENT_TIMESTAMP, '1A', '1A', 79.99, 'CONFIRMED')",
+                OTHER_INSTANCE_BOOKING_ID, user.getId(), flight.getId(), other.getId());
+
+        assertThatThrownBy(() -> bookingService.createBooking(user, flight.getId(), passenger("Late"), "1A"))
+                .hasMessage("Seat 1A is already taken");
+        assertThat(seatInventoryService.getAvailableSeats(flight.getId())).isEqualTo(10);
+
+        // The map now knows the seat, and assigns around it
+        assertThat(flightService.getSeatMap(flight.getId()).orElseThrow().isOccupied("1A")).isTrue();
+        Booking assigned = bookingService.createBooking(user, flight.getId(), passenger("Window"), null);
+        assertThat(assigned.getSeatNumber()).isNotEqualTo("1A");
+
+        // A cancelled booking frees its seat key for the next buyer
+        bookingService.cancelBooking(OTHER_INSTANCE_BOOKING_ID);
+        assertThat(bookingService.createBooking(user, flight.getId(), passenger("Next"), "1A").getSeatNumber())
+                .isEqualTo("1A");
+    }
+
+    @Test
+    void capacityChangeKeepsSeatsClaimedByOpenBookings() {
+        Flight flight = flightService.createFlight(new Flight("TX913", "Waco", "Abilene",
+                LocalTime.of(9, 0), LocalTime.of(10, 0), 40, 69.99));
+        // Claimed, but not yet inserted by its booking
+        seatMapService.claimOrAssign(flight.getId(), "5C", Passenger.SeatPreference.NO_PREFERENCE);
+
+        flightService.updateFlight(flight.getId(), withCapacity(flight, 60));
+
+        SeatMap seatMap = flightService.getSeatMap(flight.getId()).orElseThrow();
+        assertThat(seatMap.getCapacity()).isEqualTo(60);
+        assertThat(seatMap.isOccupied("5C")).isTrue();
+    }
+
+    @Test
+    void capacityChangeThatWouldRenumberSeatsIsRefused() {
+        Flight flight = flightService.createFlight(new Flight("TX914", "Waco", "Laredo",
+                LocalTime.of(12, 0), LocalTime.of(13, 30), 100, 99.99));
+        User user = userRepository.findByEmail("john@example.com").orElseThrow();
+        Booking booking = bookingService.createBooking(user, flight.getId(), passenger("Aisle"), "25D");
+
+        // 6-abreast above 100 seats would make 25D a different seat
+        assertThatThrownBy(() -> flightService.updateFlight(flight.getId(), withCapacity(flight, 150)))
+                .hasMessage("Capacity change would renumber or remove seats already taken");
+        // Row 25 is the last one; cutting it would drop the seat
+        assertThatThrownBy(() -> flightService.updateFlight(flight.getId(), withCapacity(flight, 96)))
+                .hasMessage("Capacity change would renumber or remove seats already taken");
+        assertThat(flightRepository.findById(flight.getId()).orElseThrow().getCapacity()).isEqualTo(100);
+        assertThat(seatInventoryService.getAvailableSeats(flight.getId())).isEqualTo(99);
+        assertThat(flightService.getSeatMap(flight.getId()).orElseThrow().getLayout()).isEqualTo("AB CD");
+
+        // With no seat taken the layout is free to change
+        bookingService.cancelBooking(booking.getId());
+        flightService.updateFlight(flight.getId(), withCapacity(flight, 150));
+        assertThat(flightService.getSeatMap(flight.getId()).orElseThrow().getLayout()).isEqualTo("ABC DEF");
+    }
+
+    private static Passenger passenger(String firstName) {
+        return new Passenger(firstName, "Seat", 30, Passenger.SeatPreference.WINDOW);
+    }
+
+    private static Flight withCapacity(Flight flight, int capacity) {
+        return new Flight(flight.getFlightNumber(), flight.getOrigin(), flight.getDestination(),
+                flight.getDepartureTime(), flight.getArrivalTime(), capacity, flight.getBasePrice());
+    }
+}
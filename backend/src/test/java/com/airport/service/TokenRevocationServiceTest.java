@@ -0,0 +1,88 @@
+package com.airport.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A purge rebuilds the Bloom filter; a revoked token must never slip through it,
+ * including one revoked while the rebuild runs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void revokedTokensStayRevokedAcrossRebuilds() {
+        String live = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        tokenRevocationService.revoke(live, LocalDateTime.now().plusHours(1));
+        tokenRevocationService.revoke(expired, LocalDateTime.now().minusMinutes(1));
+
+        tokenRevocationService.purgeExpired();
+
+        assertThat(tokenRevocationService.isRevoked(live)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(expired)).isFalse();
+        assertThat(tokenRevocationService.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void revocationsDuringARebuildAreNotLost() throws Exception {
+        int threads = 4;
+        int perThread = 250;
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        AtomicBoolean revoking = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+
+        Future<?> purger = pool.submit(() -> {
+            start.await();
+            while (revoking.get()) {
+                tokenRevocationService.purgeExpired();
+            }
+            return null;
+        });
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    String id = UUID.randomUUID().toString();
+                    tokenRevocationService.revoke(id, expiresAt);
+                    ids.add(id);
+                    // Checked straight away as well as at the end
+                    assertThat(tokenRevocationService.isRevoked(id)).isTrue();
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        List<String> revoked = new ArrayList<>();
+        for (Future<List<String>> result : results) {
+            revoked.addAll(result.get(1, TimeUnit.MINUTES));
+        }
+        revoking.set(false);
+        purger.get(1, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        for (String id : revoked) {
+            assertThat(tokenRevocationService.isRevoked(id)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.airport.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uniqueness under contention: several threads on each of two nodes draw far more
+ * than 4096 references per millisecond, so the sequence overflows constantly.
+ */
+class BookingReferenceGeneratorTest {
+
+    private static final int THREADS_PER_NODE = 4;
+    private static final int REFERENCES_PER_THREAD = 250_000;
+
+    @Test
+    void referencesAreUniqueAcrossThreadsAndNodes() throws Exception {
+        BookingReferenceGenerator[] nodes = {new BookingReferenceGenerator(1), new BookingReferenceGenerator(2)};
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.length * THREADS_PER_NODE);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (BookingReferenceGenerator generator : nodes) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int duplicates = 0;
+                    String previous = "";
+                    for (int i = 0; i < REFERENCES_PER_THREAD; i++) {
+                        String reference = generator.next();
+                        // Fixed width, so text order is id order: each thread sees increasing references
+                        assertThat(reference).isGreaterThan(previous);
+                        previous = reference;
+                        if (!seen.add(reference)) {
+                            duplicates++;
+                        }
+                    }
+                    return duplicates;
+                }));
+            }
+        }
+        start.countDown();
+        int duplicates = 0;
+        for (Future<Integer> result : results) {
+            duplicates += result.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(duplicates).isZero();
+        assertThat(seen).hasSize(nodes.length * THREADS_PER_NODE * REFERENCES_PER_THREAD);
+    }
+
+    @Test
+    void referencesUseThePrefixAndCrockfordAlphabet() {
+        String reference = new BookingReferenceGenerator(BookingReferenceGenerator.MAX_NODE_ID).next();
+
+        assertThat(reference).matches("TXR[0-9A-HJKMNP-TV-Z]{13}");
+    }
+
+    @Test
+    void nodeIdMustFitInTenBits() {
+        assertThatThrownBy(() -> new BookingReferenceGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BookingReferenceGenerator(BookingReferenceGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.airport.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    @Test
+    void returnsCachedValuesAndCountsHitsAndMisses() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        cache.remove("a");
+        assertThat(cache.get("a")).isNull();
+
+        BoundedCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofMillis(20));
+        cache.put("a", 1);
+        Thread.sleep(50);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void trimsTheOldestEntriesWhenFull() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+        }
+
+        assertThat(cache.get(999)).isEqualTo(999);
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1000 - cache.size());
+    }
+
+    @Test
+    void segmentedCacheKeepsTheMostRecentEntries() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1024, Duration.ofMinutes(1));
+        for (int i = 0; i < 4096; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isEqualTo(1024);
+        for (int i = 4096 - 256; i < 4096; i++) {
+            assertThat(cache.get(i)).isEqualTo(i);
+        }
+        assertThat(cache.get(0)).isNull();
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void staysBoundedUnderConcurrentWriters() throws Exception {
+        int threads = 8;
+        int maxSize = 500;
+        int bound = maxSize;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(maxSize, Duration.ofMinutes(1));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int maxSeen = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 100_000; i++) {
+                    int key = random.nextInt(10_000);
+                    Integer value = cache.get(key);
+                    // A value is only ever cached under its own key
+                    assertThat(value == null || value == key).isTrue();
+                    if (value == null) {
+                        cache.put(key, key);
+                    }
+                    maxSeen = Math.max(maxSeen, cache.size());
+                }
+                return maxSeen;
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> result : results) {
+            assertThat(result.get(1, TimeUnit.MINUTES)).isLessThanOrEqualTo(bound);
+        }
+        pool.shutdown();
+
+        assertThat(cache.size()).isLessThanOrEqualTo(bound);
+    }
+}
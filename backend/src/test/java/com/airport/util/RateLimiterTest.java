@@ -0,0 +1,73 @@
+package com.airport.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limits are per hour, so no bucket refills while a test runs.
+ */
+class RateLimiterTest {
+
+    @Test
+    void allowsABurstThenThrottlesWithTheWaitForTheNextToken() {
+        RateLimiter limiter = RateLimiter.parse("5/h", 100);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("a")).isZero();
+        }
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(12));
+        assertThat(limiter.tryAcquire("b")).isZero();
+
+        RateLimiter.Stats stats = limiter.stats();
+        assertThat(stats.allowed()).isEqualTo(6);
+        assertThat(stats.throttled()).isEqualTo(1);
+        assertThat(stats.keys()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentRequestsForOneKeyNeverExceedTheLimit() throws Exception {
+        RateLimiter limiter = RateLimiter.parse("100/h", 100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void rejectsMalformedLimits() {
+        assertThatThrownBy(() -> RateLimiter.parse("10 per minute", 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimiter.parse("0/m", 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}